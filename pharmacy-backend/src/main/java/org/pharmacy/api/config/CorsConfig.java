@@ -41,6 +41,7 @@ public class CorsConfig {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("Idempotent-Replayed");
         urlBasedCorsConfigurationSource.registerCorsConfiguration("/**", config);
 
         return new CorsFilter(urlBasedCorsConfigurationSource);
@@ -44,6 +44,7 @@ public class SecurityConfig {
                         // Public product endpoints
                         .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/search").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/reviews/**").permitAll()
 
                         // Admin only endpoints
@@ -51,10 +52,15 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.PUT, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasRole("ADMIN")
                         .requestMatchers("/api/reports/**").hasAnyRole("ADMIN", "PHARMACIST")
+                        .requestMatchers("/api/dashboard/write-conflicts").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/export").hasRole("ADMIN")
 
                         // Pharmacist endpoints
                         .requestMatchers("/api/prescriptions/*/approve").hasAnyRole("PHARMACIST", "ADMIN")
                         .requestMatchers("/api/prescriptions/*/reject").hasAnyRole("PHARMACIST", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/checkout-holds").hasAnyRole("ADMIN", "PHARMACIST")
+                        .requestMatchers(HttpMethod.GET, "/api/orders/intake-stats").hasAnyRole("ADMIN", "PHARMACIST")
+                        .requestMatchers(HttpMethod.PUT, "/api/orders/status").hasAnyRole("ADMIN", "PHARMACIST")
 
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
@@ -10,13 +10,22 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.BasketSizeBucket;
+import org.pharmacy.api.dto.RevenueBreakdown;
+import org.pharmacy.api.dto.SalesTimeseriesPoint;
+import org.pharmacy.api.dto.TopSeller;
 import org.pharmacy.api.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -35,8 +44,76 @@ public class AnalyticsController {
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
+    @GetMapping("/sales/timeseries")
+    @Operation(summary = "Get sales time series", description = "Orders, units and revenue per hour, day or week, optionally for one order status and product category. Defaults to the last seven days")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<SalesTimeseriesPoint>>> getSalesTimeseries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category) {
+        List<SalesTimeseriesPoint> points = analyticsService.getSalesTimeseries(from, to, granularity, status, category);
+        return ResponseEntity.ok(ApiResponse.success(points));
+    }
+
+    @GetMapping("/top-sellers")
+    @Operation(summary = "Get top sellers", description = "Best-selling products by units or revenue over a date range, optionally for one category. Defaults to the last 30 days; cancelled orders are excluded")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<TopSeller>>> getTopSellers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "units") String by,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TopSeller> sellers = analyticsService.getTopSellers(from, to, by, category, limit);
+        return ResponseEntity.ok(ApiResponse.success(sellers));
+    }
+
+    @GetMapping("/top-sellers/live")
+    @Operation(summary = "Get live top sellers", description = "Estimated best-selling products of the last 24 hours by units or revenue, served from memory; cancelled orders are excluded as in the date-range report. maxError bounds how far each entry may be off")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<TopSeller>>> getLiveTopSellers(
+            @RequestParam(defaultValue = "units") String by,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TopSeller> sellers = analyticsService.getLiveTopSellers(by, category, limit);
+        return ResponseEntity.ok(ApiResponse.success(sellers));
+    }
+
+    @GetMapping("/snapshot")
+    @Operation(summary = "Get analytics snapshot stats", description = "Size, age and refresh time of the in-memory order snapshot behind the snapshot reports")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSnapshotStats() {
+        Map<String, Object> stats = analyticsService.getSnapshotStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @GetMapping("/snapshot/revenue")
+    @Operation(summary = "Get revenue breakdown", description = "Order lines, units and revenue by brand, category or prescription (Rx vs OTC), optionally for an order date range and status. Served from the in-memory snapshot")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<RevenueBreakdown>>> getRevenueBreakdown(
+            @RequestParam(defaultValue = "brand") String by,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        List<RevenueBreakdown> breakdown = analyticsService.getRevenueBreakdown(by, from, to, status);
+        return ResponseEntity.ok(ApiResponse.success(breakdown));
+    }
+
+    @GetMapping("/snapshot/basket-sizes")
+    @Operation(summary = "Get basket size distribution", description = "Orders and average order value per number of order lines, optionally for an order date range and status. Served from the in-memory snapshot")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<BasketSizeBucket>>> getBasketSizes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String status) {
+        List<BasketSizeBucket> buckets = analyticsService.getBasketSizes(from, to, status);
+        return ResponseEntity.ok(ApiResponse.success(buckets));
+    }
+
     @GetMapping("/inventory")
-    @Operation(summary = "Get inventory report", description = "Retrieve inventory statistics and stock analysis")
+    @Operation(summary = "Get inventory report", description = "Retrieve inventory statistics and stock analysis over available stock, including movements not yet folded into the stock column")
     @SecurityRequirement(name = "Bearer Authentication")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getInventoryReport() {
         Map<String, Object> report = analyticsService.getInventoryReport();
@@ -34,6 +34,14 @@ public class DashboardController {
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    @GetMapping("/write-conflicts")
+    @Operation(summary = "Get write conflict metrics", description = "Optimistic lock conflicts and retries per write operation (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getWriteConflicts() {
+        Map<String, Object> metrics = dashboardService.getWriteConflictStats();
+        return ResponseEntity.ok(ApiResponse.success(metrics));
+    }
+
     @GetMapping("/analytics")
     @Operation(summary = "Get analytics data", description = "Get detailed analytics (Admin/Pharmacist only)")
     @SecurityRequirement(name = "Bearer Authentication")
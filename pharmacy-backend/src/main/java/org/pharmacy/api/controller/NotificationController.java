@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.model.Notification;
 import org.pharmacy.api.service.NotificationService;
 import lombok.RequiredArgsConstructor;
@@ -27,11 +28,19 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     @GetMapping("/{userId}")
-    @Operation(summary = "Get user notifications", description = "Retrieve all notifications for a user")
+    @Operation(summary = "Get user notifications", description = "Retrieve a user's notifications one cursor page at a time (unpaged=true returns all)")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<List<Notification>>> getUserNotifications(@PathVariable Long userId) {
-        List<Notification> notifications = notificationService.getUserNotifications(userId);
-        return ResponseEntity.ok(ApiResponse.success(notifications));
+    public ResponseEntity<ApiResponse<?>> getUserNotifications(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<Notification> notifications = notificationService.getUserNotifications(userId);
+            return ResponseEntity.ok(ApiResponse.success(notifications));
+        }
+        CursorPage<Notification> page = notificationService.getUserNotificationPage(userId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @GetMapping("/{userId}/unread")
@@ -10,16 +10,34 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.BulkOrderStatusRequest;
+import org.pharmacy.api.dto.BulkOrderStatusResult;
+import org.pharmacy.api.dto.CursorPage;
+import org.pharmacy.api.dto.OrderIntake;
 import org.pharmacy.api.dto.OrderRequest;
 import org.pharmacy.api.dto.OrderStatusRequest;
+import org.pharmacy.api.dto.OrderSummary;
 import org.pharmacy.api.model.Order;
+import org.pharmacy.api.service.IdempotencyService;
+import org.pharmacy.api.service.OrderExportService;
+import org.pharmacy.api.service.OrderIntakeService;
 import org.pharmacy.api.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -28,31 +46,117 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderExportService orderExportService;
 
     @PostMapping
-    @Operation(summary = "Create order", description = "Place a new order with selected products")
+    @Operation(summary = "Create order", description = "Place a new order with selected products. Send an Idempotency-Key header to make retries safe; async=true queues the order and returns 202 with an intake to poll")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<Order>> createOrder(@Valid @RequestBody OrderRequest request) {
-        Order order = orderService.createOrder(request);
-        return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody OrderRequest request,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        String scope = async ? "orders-async" : "orders";
+        return idempotencyService.execute(scope, authentication.getName(), idempotencyKey, request, () -> {
+            if (async) {
+                return orderIntakeService.submit(request)
+                        .<ResponseEntity<?>>map(intake -> ResponseEntity
+                                .accepted()
+                                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                        .path("/api/orders/intake/{id}").buildAndExpand(intake.getId()).toUri())
+                                .body(ApiResponse.success("Order accepted for processing", intake)))
+                        .orElseGet(() -> ResponseEntity
+                                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(ApiResponse.error("Order intake is at capacity, please retry shortly")));
+            }
+            Order order = orderService.createOrder(request);
+            return ResponseEntity.ok(ApiResponse.success("Order created successfully", order));
+        });
+    }
+
+    @GetMapping("/intake/{id}")
+    @Operation(summary = "Get order intake", description = "Poll an asynchronously submitted order until it is COMPLETED or FAILED (own orders, or Admin/Pharmacist)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<OrderIntake>> getOrderIntake(@PathVariable String id,
+                                                                   Authentication authentication) {
+        OrderIntake intake = orderIntakeService.getIntake(id, authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success(intake));
+    }
+
+    @GetMapping(value = "/intake/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to order intake", description = "Server-sent event delivered once the asynchronously submitted order is finished (own orders, or Admin/Pharmacist)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public SseEmitter subscribeOrderIntake(@PathVariable String id, Authentication authentication) {
+        return orderIntakeService.subscribe(id, authentication.getName());
+    }
+
+    @GetMapping("/intake-stats")
+    @Operation(summary = "Get order intake metrics", description = "Queue depth, batch sizes and processing latency of asynchronous order intake (Admin/Pharmacist only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getOrderIntakeStats() {
+        Map<String, Object> stats = orderIntakeService.getStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
     @GetMapping("/{userId}")
     @Transactional(readOnly = true)
     @Operation(summary = "Get user orders", description = "Retrieve order history for a specific user")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<List<Order>>> getUserOrders(@PathVariable Long userId) {
-        List<Order> orders = orderService.getUserOrders(userId);
+    public ResponseEntity<ApiResponse<List<OrderSummary>>> getUserOrders(@PathVariable Long userId) {
+        List<OrderSummary> orders = orderService.getUserOrders(userId);
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
     @GetMapping
     @Transactional(readOnly = true)
-    @Operation(summary = "Get all orders", description = "Retrieve all orders (Admin/Pharmacist only)")
+    @Operation(summary = "Get all orders", description = "Retrieve orders one cursor page at a time, unpaged=true returns all (Admin/Pharmacist only)")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<List<Order>>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(ApiResponse.success(orders));
+    public ResponseEntity<ApiResponse<?>> getAllOrders(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<OrderSummary> orders = orderService.getAllOrders();
+            return ResponseEntity.ok(ApiResponse.success(orders));
+        }
+        CursorPage<OrderSummary> page = orderService.getOrderPage(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export orders", description = "Stream orders (dataset=orders) or order lines (dataset=items) as NDJSON or CSV, optionally filtered by status and order date (Admin only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "orders") String dataset,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.of(format);
+        StreamingResponseBody body = orderExportService.export(dataset, exportFormat, status, from, to);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + dataset.toLowerCase() + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/details/{id}")
+    @Operation(summary = "Get order details", description = "Retrieve one order with its customer, prescription and items")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Order>> getOrderDetails(@PathVariable Long id) {
+        Order order = orderService.getOrderById(id);
+        return ResponseEntity.ok(ApiResponse.success(order));
+    }
+
+    @GetMapping("/checkout-holds")
+    @Operation(summary = "Get checkout hold stats", description = "Card orders holding stock while awaiting payment, and how many holds expired (Admin/Pharmacist only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCheckoutHoldStats() {
+        Map<String, Object> stats = orderService.getCheckoutHoldStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
     @PutMapping("/{id}/status")
@@ -65,6 +169,15 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated", order));
     }
 
+    @PutMapping("/status")
+    @Operation(summary = "Bulk update order status", description = "Move up to 1000 orders to one status; orders that cannot make the transition are skipped with a reason (Admin/Pharmacist only)")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<BulkOrderStatusResult>> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        BulkOrderStatusResult result = orderService.bulkUpdateStatus(request.getOrderIds(), request.getStatus());
+        return ResponseEntity.ok(ApiResponse.success(result.getUpdated().size() + " orders updated", result));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Cancel order", description = "Cancel an existing order")
     @SecurityRequirement(name = "Bearer Authentication")
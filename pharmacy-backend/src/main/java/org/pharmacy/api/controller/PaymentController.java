@@ -13,9 +13,11 @@ import org.pharmacy.api.dto.ApiResponse;
 import org.pharmacy.api.dto.PaymentRequest;
 import org.pharmacy.api.dto.PaymentVerificationRequest;
 import org.pharmacy.api.model.Payment;
+import org.pharmacy.api.service.IdempotencyService;
 import org.pharmacy.api.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -26,13 +28,19 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/initiate")
-    @Operation(summary = "Initiate payment", description = "Start payment process for an order")
+    @Operation(summary = "Initiate payment", description = "Start payment process for an order. Send an Idempotency-Key header to make retries safe")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<Payment>> initiatePayment(@RequestBody PaymentRequest request) {
-        Payment payment = paymentService.initiatePayment(request);
-        return ResponseEntity.ok(ApiResponse.success("Payment initiated", payment));
+    public ResponseEntity<?> initiatePayment(
+            @RequestBody PaymentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        return idempotencyService.execute("payments", authentication.getName(), idempotencyKey, request, () -> {
+            Payment payment = paymentService.initiatePayment(request);
+            return ResponseEntity.ok(ApiResponse.success("Payment initiated", payment));
+        });
     }
 
     @PostMapping("/verify")
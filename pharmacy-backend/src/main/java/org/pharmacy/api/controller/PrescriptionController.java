@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.model.Prescription;
 import org.pharmacy.api.repository.PrescriptionRepository;  // ← ADD THIS IMPORT
 import org.pharmacy.api.service.PrescriptionService;
@@ -80,11 +81,20 @@ public class PrescriptionController {
 
     @GetMapping
     @Transactional(readOnly = true)
-    @Operation(summary = "Get all prescriptions", description = "Retrieve all prescriptions (Admin/Pharmacist only)")
+    @Operation(summary = "Get all prescriptions", description = "Retrieve prescriptions one cursor page at a time, unpaged=true returns all (Admin/Pharmacist only)")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<List<Prescription>>> getAllPrescriptions() {
-        List<Prescription> prescriptions = prescriptionRepository.findAll();
-        return ResponseEntity.ok(ApiResponse.success(prescriptions));
+    public ResponseEntity<ApiResponse<?>> getAllPrescriptions(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<Prescription> prescriptions = prescriptionRepository.findAll();
+            return ResponseEntity.ok(ApiResponse.success(prescriptions));
+        }
+        int pageSize = CursorPage.pageSize(size);
+        List<Prescription> prescriptions = prescriptionRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.after(cursor), CursorPage.limit(pageSize));
+        return ResponseEntity.ok(ApiResponse.success(CursorPage.of(prescriptions, pageSize, Prescription::getId)));
     }
 
     @GetMapping("/user/{userId}")
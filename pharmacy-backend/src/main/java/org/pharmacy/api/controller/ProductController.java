@@ -10,8 +10,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.CursorPage;
+import org.pharmacy.api.dto.FacetedSearchResponse;
 import org.pharmacy.api.dto.ProductRequest;
+import org.pharmacy.api.dto.ProductSuggestion;
 import org.pharmacy.api.dto.StockUpdateRequest;
+import org.pharmacy.api.event.LowStockEvent;
 import org.pharmacy.api.model.Product;
 import org.pharmacy.api.service.ProductService;
 import jakarta.validation.Valid;
@@ -19,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -29,10 +34,17 @@ public class ProductController {
     private final ProductService productService;
 
     @GetMapping("/products")
-    @Operation(summary = "Get all products", description = "Retrieve list of all medicines/products")
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(ApiResponse.success(products));
+    @Operation(summary = "Get all products", description = "Retrieve medicines/products one cursor page at a time (unpaged=true returns the full list)")
+    public ResponseEntity<ApiResponse<?>> getAllProducts(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<Product> products = productService.getAllProducts();
+            return ResponseEntity.ok(ApiResponse.success(products));
+        }
+        CursorPage<Product> page = productService.getProductPage(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @GetMapping("/products/{id}")
@@ -76,6 +88,15 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(lowStockProducts));
     }
 
+    @GetMapping("/inventory/low-stock-alerts")
+    @Operation(summary = "Get low stock alerts", description = "Products that crossed their reorder level, after the given alert sequence number")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<List<LowStockEvent>>> getLowStockAlerts(
+            @RequestParam(required = false) Long after) {
+        List<LowStockEvent> alerts = productService.getLowStockAlerts(after);
+        return ResponseEntity.ok(ApiResponse.success(alerts));
+    }
+
     @PostMapping("/inventory/update-stock")
     @Operation(summary = "Update stock", description = "Add or subtract product stock quantity (Admin only)")
     @SecurityRequirement(name = "Bearer Authentication")
@@ -84,8 +105,16 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Stock updated successfully", product));
     }
 
+    @GetMapping("/inventory/catalog-stats")
+    @Operation(summary = "Get catalog cache statistics", description = "View in-memory catalog snapshot version and hit/miss/rebuild counters")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCatalogStats() {
+        Map<String, Object> stats = productService.getCatalogStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search products", description = "Search and filter products by name, category, or prescription requirement")
+    @Operation(summary = "Search products", description = "Full-text search over name, brand, category and description (prefix matches, ranked by relevance), or filter by prescription requirement")
     public ResponseEntity<ApiResponse<List<Product>>> searchProducts(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String filter) {
@@ -103,4 +132,27 @@ public class ProductController {
         List<Product> products = productService.getAllProducts();
         return ResponseEntity.ok(ApiResponse.success(products));
     }
+
+    @GetMapping("/search/facets")
+    @Operation(summary = "Faceted product search", description = "Combine category, brand, prescription, stock and price band filters (repeat a parameter to OR values) with per-facet counts")
+    public ResponseEntity<ApiResponse<FacetedSearchResponse>> facetedSearch(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) Boolean prescriptionRequired,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) List<String> priceBand) {
+        FacetedSearchResponse response = productService.facetedSearch(
+                query, category, brand, prescriptionRequired, inStock, priceBand);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/search/suggest")
+    @Operation(summary = "Suggest products", description = "Search-as-you-type completions of product names and brands (max 50)")
+    public ResponseEntity<ApiResponse<List<ProductSuggestion>>> suggestProducts(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestion> suggestions = productService.suggestProducts(query, limit);
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
 }
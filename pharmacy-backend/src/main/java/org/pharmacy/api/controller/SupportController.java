@@ -10,6 +10,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.dto.SupportTicketRequest;
 import org.pharmacy.api.model.SupportTicket;
 import org.pharmacy.api.service.SupportService;
@@ -56,11 +57,18 @@ public class SupportController {
     }
 
     @GetMapping("/tickets/all")
-    @Operation(summary = "Get all tickets", description = "Retrieve all support tickets (Admin/Pharmacist only)")
+    @Operation(summary = "Get all tickets", description = "Retrieve support tickets one cursor page at a time, unpaged=true returns all (Admin/Pharmacist only)")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<List<SupportTicket>>> getAllTickets() {
-        List<SupportTicket> tickets = supportService.getAllTickets();
-        return ResponseEntity.ok(ApiResponse.success(tickets));
+    public ResponseEntity<ApiResponse<?>> getAllTickets(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<SupportTicket> tickets = supportService.getAllTickets();
+            return ResponseEntity.ok(ApiResponse.success(tickets));
+        }
+        CursorPage<SupportTicket> page = supportService.getTicketPage(cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @PutMapping("/ticket/{id}/status")
@@ -2,8 +2,11 @@ package org.pharmacy.api.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.dto.CursorPage;
+import org.pharmacy.api.event.UserRoleChangedEvent;
 import org.pharmacy.api.model.User;
 import org.pharmacy.api.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -18,12 +21,22 @@ import java.util.Map;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @GetMapping
     @Transactional(readOnly = true)
-    public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return ResponseEntity.ok(ApiResponse.success(users));
+    public ResponseEntity<ApiResponse<?>> getAllUsers(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<User> users = userRepository.findAll();
+            return ResponseEntity.ok(ApiResponse.success(users));
+        }
+        int pageSize = CursorPage.pageSize(size);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.after(cursor), CursorPage.limit(pageSize));
+        return ResponseEntity.ok(ApiResponse.success(CursorPage.of(users, pageSize, User::getId)));
     }
 
     @PutMapping("/{userId}/role")
@@ -36,10 +49,12 @@ public class UserController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         String roleStr = request.get("role");
+        User.UserRole previousRole = user.getRole();
         user.setRole(User.UserRole.valueOf(roleStr));
         user.setUpdatedAt(LocalDateTime.now());
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserRoleChangedEvent(user.getId(), previousRole, user.getRole()));
 
         return ResponseEntity.ok(ApiResponse.success("Role updated successfully", user));
     }
@@ -50,6 +65,7 @@ public class UserController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserRoleChangedEvent(user.getId(), user.getRole(), null));
 
         return ResponseEntity.ok(ApiResponse.success("User deleted successfully", null));
     }
@@ -0,0 +1,24 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Orders with a given number of lines; the last bucket is open-ended, e.g. "20+".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketSizeBucket {
+    private String items;
+    private Long orders;
+    private Double share;
+    private Double averageOrderValue;
+}
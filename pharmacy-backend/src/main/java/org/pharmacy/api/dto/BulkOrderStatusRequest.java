@@ -0,0 +1,28 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+    @NotEmpty(message = "Order ids are required")
+    @Size(max = 1000, message = "At most 1000 orders can be updated at once")
+    private List<Long> orderIds;
+
+    @NotBlank(message = "Status is required")
+    private String status;
+}
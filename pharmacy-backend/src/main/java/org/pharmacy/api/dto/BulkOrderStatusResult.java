@@ -0,0 +1,29 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk status change: the orders that moved, and for each
+ * order left alone the reason it was skipped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResult {
+    private String status;
+    private List<Long> updated = new ArrayList<>();
+    private Map<Long, String> skipped = new LinkedHashMap<>();
+}
@@ -0,0 +1,35 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an order submitted for asynchronous processing. Polled through
+ * {@code GET /api/orders/intake/{id}} until it is COMPLETED (with the order
+ * id) or FAILED (with the reason).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntake {
+    private String id;
+    private Long userId;
+    private Status status;
+    private Long orderId;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        QUEUED, PROCESSING, COMPLETED, FAILED
+    }
+}
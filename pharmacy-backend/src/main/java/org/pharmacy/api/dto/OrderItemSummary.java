@@ -0,0 +1,33 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for one order line with its order's status and date, read
+ * with a projection query for exports.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemSummary {
+    private Long orderId;
+    private Order.OrderStatus orderStatus;
+    private LocalDateTime orderCreatedAt;
+    private Long itemId;
+    private Long productId;
+    private String productName;
+    private Integer quantity;
+    private Double price;
+    private Double subtotal;
+}
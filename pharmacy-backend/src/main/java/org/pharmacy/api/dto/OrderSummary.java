@@ -0,0 +1,36 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for order lists, read with one projection query instead of
+ * loading each order's user, prescription and items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private Long userId;
+    private String userName;
+    private String userEmail;
+    private Order.OrderStatus status;
+    private Double totalAmount;
+    private Integer itemCount;
+    private String paymentMethod;
+    private String shippingAddress;
+    private Long prescriptionId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
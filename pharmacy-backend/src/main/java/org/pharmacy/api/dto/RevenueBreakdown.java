@@ -0,0 +1,26 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order lines, units and revenue of one brand, category or prescription
+ * group, with its share of the total revenue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBreakdown {
+    private String key;
+    private Long lines;
+    private Long units;
+    private Double revenue;
+    private Double share;
+}
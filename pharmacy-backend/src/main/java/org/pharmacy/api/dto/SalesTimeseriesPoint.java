@@ -0,0 +1,26 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sales in one time bucket of {@code GET /api/reports/sales/timeseries}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTimeseriesPoint {
+    private LocalDateTime bucketStart;
+    private Long orders;
+    private Long units;
+    private Double revenue;
+}
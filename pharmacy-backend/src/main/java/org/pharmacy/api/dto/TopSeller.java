@@ -0,0 +1,32 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One product in a top sellers report. In the live view the ranked figure
+ * is an estimate that is off by at most {@code maxError}, and the
+ * other figure is null when the product is not tracked for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopSeller {
+    private Long productId;
+    private String productName;
+    private String category;
+    private Long units;
+    private Double revenue;
+    private Double maxError;
+
+    public TopSeller(Long productId, String productName, String category, Long units, Double revenue) {
+        this(productId, productName, category, units, revenue, 0.0);
+    }
+}
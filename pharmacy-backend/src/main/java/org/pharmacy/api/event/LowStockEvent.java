@@ -0,0 +1,28 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a product's stock drops to or below its reorder level.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockEvent {
+    private long sequence;
+    private Long productId;
+    private String productName;
+    private Integer stockQuantity;
+    private Integer reorderLevel;
+    private LocalDateTime occurredAt;
+}
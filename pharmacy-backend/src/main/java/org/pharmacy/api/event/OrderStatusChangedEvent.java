@@ -0,0 +1,27 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.Order;
+
+/**
+ * Published when an order is placed or changes status; previousStatus is
+ * null for a new order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+    private Long orderId;
+    private Long userId;
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    private Double totalAmount;
+}
@@ -0,0 +1,25 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.Prescription;
+
+/**
+ * Published when a prescription is uploaded or reviewed; previousStatus is
+ * null for a new prescription.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrescriptionStatusChangedEvent {
+    private Long prescriptionId;
+    private Prescription.PrescriptionStatus previousStatus;
+    private Prescription.PrescriptionStatus status;
+}
@@ -0,0 +1,25 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.SupportTicket;
+
+/**
+ * Published when a support ticket is opened or changes status;
+ * previousStatus is null for a new ticket.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketStatusChangedEvent {
+    private Long ticketId;
+    private SupportTicket.TicketStatus previousStatus;
+    private SupportTicket.TicketStatus status;
+}
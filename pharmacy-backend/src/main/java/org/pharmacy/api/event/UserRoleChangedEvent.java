@@ -0,0 +1,25 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.model.User;
+
+/**
+ * Published when a user registers, changes role or is deleted; previousRole
+ * is null for a new user and role is null for a deleted one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleChangedEvent {
+    private Long userId;
+    private User.UserRole previousRole;
+    private User.UserRole role;
+}
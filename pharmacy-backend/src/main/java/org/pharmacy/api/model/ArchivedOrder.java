@@ -0,0 +1,59 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished order moved out of the hot {@code orders} tables. The columns
+ * needed for listings are kept as is; items and payments are packed into
+ * one gzipped JSON document that is only unpacked when the order itself
+ * is read.
+ */
+@Entity
+@Table(name = "archived_orders", indexes = {
+        @Index(name = "idx_archived_orders_order_id", columnList = "order_id", unique = true),
+        @Index(name = "idx_archived_orders_user_id", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "archived_orders_seq")
+    @SequenceGenerator(name = "archived_orders_seq", allocationSize = 50)
+    private Long id;
+
+    // id the order had while it was hot
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    private Double totalAmount;
+    private Integer itemCount;
+    private String shippingAddress;
+    private String paymentMethod;
+    private Long prescriptionId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime archivedAt = LocalDateTime.now();
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] detail;
+}
@@ -13,19 +13,22 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "chat_messages")
+@NamedEntityGraph(name = "ChatMessage.participants",
+        attributeNodes = {@NamedAttributeNode("sender"), @NamedAttributeNode("receiver")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ChatMessage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id")
     private User sender;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id")
     private User receiver;
 
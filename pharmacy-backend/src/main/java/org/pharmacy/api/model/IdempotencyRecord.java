@@ -0,0 +1,59 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced. The
+ * unique record key doubles as the claim that stops two identical requests
+ * from running at the same time.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", allocationSize = 50)
+    private Long id;
+
+    // scope + caller + client key
+    @Column(nullable = false, unique = true, length = 400)
+    private String recordKey;
+
+    // SHA-256 of the request body, so a key cannot be reused for a different request
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.IN_PROGRESS;
+
+    private Integer responseStatus;
+
+    @Lob
+    private String responseBody;
+
+    // When the key was last claimed; an IN_PROGRESS claim older than the claim timeout can be taken over
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime expiresAt;
+
+    // Bumped by every takeover, so a claim that was taken over can no longer complete or release the key
+    @Version
+    private Long version;
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
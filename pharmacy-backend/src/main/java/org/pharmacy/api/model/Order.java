@@ -18,19 +18,32 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(name = "Order.detail",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "items", subgraph = "items"),
+                @NamedAttributeNode(value = "prescription", subgraph = "prescription")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")),
+                @NamedSubgraph(name = "prescription",
+                        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("reviewedBy")})
+        })
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties("order")
     private List<OrderItem> items = new ArrayList<>();
 
@@ -41,14 +54,29 @@ public class Order {
     private String shippingAddress;
     private String paymentMethod;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "prescription_id")
     private Prescription prescription;
 
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Optimistic lock: a write based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+
+        /**
+         * Fulfilment only moves forward, and an order can be cancelled until
+         * it has shipped. Delivered and cancelled orders are final.
+         */
+        public boolean canTransitionTo(OrderStatus next) {
+            if (next == CANCELLED) {
+                return this == PENDING || this == CONFIRMED || this == PROCESSING;
+            }
+            return this != CANCELLED && next.ordinal() > ordinal();
+        }
     }
 }
@@ -13,19 +13,35 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
+@NamedEntityGraph(name = "Payment.detail",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "order", subgraph = "order")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "order", attributeNodes = {
+                        @NamedAttributeNode("user"),
+                        @NamedAttributeNode(value = "items", subgraph = "items"),
+                        @NamedAttributeNode(value = "prescription", subgraph = "prescription")
+                }),
+                @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")),
+                @NamedSubgraph(name = "prescription",
+                        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("reviewedBy")})
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -40,6 +56,10 @@ public class Payment {
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Optimistic lock: a write based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     public enum PaymentStatus {
         PENDING, PROCESSING, COMPLETED, FAILED, REFUNDED
     }
@@ -6,6 +6,7 @@
  */
 package org.pharmacy.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,15 +16,19 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "prescriptions")
+@NamedEntityGraph(name = "Prescription.users",
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("reviewedBy")})
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Prescription {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prescriptions_seq")
+    @SequenceGenerator(name = "prescriptions_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -41,10 +46,14 @@ public class Prescription {
     private LocalDateTime uploadedAt = LocalDateTime.now();
     private LocalDateTime reviewedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reviewed_by")
     private User reviewedBy;
 
+    // Optimistic lock: a write based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
+
     public enum PrescriptionStatus {
         PENDING, APPROVED, REJECTED
     }
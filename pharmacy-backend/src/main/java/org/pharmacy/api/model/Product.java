@@ -6,6 +6,7 @@
  */
 package org.pharmacy.api.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,12 +16,14 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,9 +41,15 @@ public class Product {
 
     private Boolean prescriptionRequired = false;
 
+    // Inserted with the product, afterwards only changed when the StockLedger folds in stock movements
+    @Column(updatable = false)
     private Integer stockQuantity = 0;
     private Integer reorderLevel = 10;
 
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Optimistic lock: a write based on a stale read fails instead of overwriting
+    @Version
+    private Long version;
 }
@@ -15,19 +15,22 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reviews")
+@NamedEntityGraph(name = "Review.productAndUser",
+        attributeNodes = {@NamedAttributeNode("product"), @NamedAttributeNode("user")})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -0,0 +1,53 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Sales for one hour, order status and product category. Orders are
+ * bucketed by the hour they were placed and move between status rows as
+ * their status changes. The category {@value #ALL_CATEGORIES} row counts
+ * each order once, however many categories it spans.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+
+    public static final String ALL_CATEGORIES = "*";
+
+    @EmbeddedId
+    private Key key;
+
+    private Long orderCount;
+    private Long units;
+    private Double revenue;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDateTime bucketStart;
+
+        @Enumerated(EnumType.STRING)
+        @Column(length = 20)
+        private Order.OrderStatus status;
+
+        @Column(length = 100)
+        private String category;
+    }
+}
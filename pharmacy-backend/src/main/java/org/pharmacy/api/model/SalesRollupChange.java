@@ -0,0 +1,50 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order status change not yet applied to the {@link SalesRollup} buckets.
+ * Written in the same transaction as the change, so a restart cannot lose it
+ * and applying it deletes it.
+ */
+@Entity
+@Table(name = "sales_rollup_changes", indexes = {
+        @Index(name = "idx_sales_rollup_changes_order_id", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_changes_seq")
+    @SequenceGenerator(name = "sales_rollup_changes_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    private Order.OrderStatus status;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public SalesRollupChange(Long orderId, Order.OrderStatus previousStatus, Order.OrderStatus status) {
+        this.orderId = orderId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+    }
+}
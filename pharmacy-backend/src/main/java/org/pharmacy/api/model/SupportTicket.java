@@ -15,15 +15,17 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "support_tickets")
+@NamedEntityGraph(name = "SupportTicket.user", attributeNodes = @NamedAttributeNode("user"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SupportTicket {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "support_tickets_seq")
+    @SequenceGenerator(name = "support_tickets_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
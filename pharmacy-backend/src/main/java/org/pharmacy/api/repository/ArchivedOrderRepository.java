@@ -0,0 +1,52 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.pharmacy.api.dto.OrderSummary;
+import org.pharmacy.api.model.ArchivedOrder;
+import org.pharmacy.api.model.Order;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    Optional<ArchivedOrder> findByOrderId(Long orderId);
+    List<ArchivedOrder> findByUserIdOrderByOrderId(Long userId);
+
+    @Query("SELECT new org.pharmacy.api.dto.OrderSummary(a.orderId, u.id, u.fullName, u.email, a.status, " +
+            "a.totalAmount, a.itemCount, a.paymentMethod, a.shippingAddress, a.prescriptionId, a.createdAt, a.updatedAt) " +
+            "FROM ArchivedOrder a JOIN User u ON u.id = a.userId WHERE a.userId = :userId ORDER BY a.orderId")
+    List<OrderSummary> findSummariesByUserId(Long userId);
+
+    long countByUserId(Long userId);
+
+    boolean existsByCreatedAtGreaterThanEqualAndCreatedAtLessThan(LocalDateTime from, LocalDateTime to);
+
+    String FILTER = "WHERE (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.createdAt >= :from) AND (:to IS NULL OR a.createdAt < :to) ";
+
+    // Forward-only cursor for exports; null filters match everything
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.pharmacy.api.dto.OrderSummary(a.orderId, u.id, u.fullName, u.email, a.status, " +
+            "a.totalAmount, a.itemCount, a.paymentMethod, a.shippingAddress, a.prescriptionId, a.createdAt, a.updatedAt) " +
+            "FROM ArchivedOrder a JOIN User u ON u.id = a.userId " + FILTER + "ORDER BY a.orderId")
+    Stream<OrderSummary> streamSummaries(Order.OrderStatus status, LocalDateTime from, LocalDateTime to);
+
+    // [order id, status, created at, packed detail] rows, unmanaged so the cursor does not fill the session
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT a.orderId, a.status, a.createdAt, a.detail FROM ArchivedOrder a " + FILTER + "ORDER BY a.orderId")
+    Stream<Object[]> streamDetails(Order.OrderStatus status, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,45 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.repository;
+
+import org.pharmacy.api.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByRecordKey(String recordKey);
+
+    // Give up a claim, unless it has been taken over since
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.version = :version")
+    int release(String recordKey, Long version);
+
+    // Take over a key whose record has expired, or whose claim for the same request was abandoned before completing
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'IN_PROGRESS', " +
+            "r.requestHash = :requestHash, r.responseStatus = NULL, r.responseBody = NULL, " +
+            "r.createdAt = :now, r.expiresAt = :expiresAt, r.version = r.version + 1 " +
+            "WHERE r.recordKey = :recordKey AND (r.expiresAt < :now " +
+            "OR (r.status = 'IN_PROGRESS' " +
+            "AND r.createdAt < :staleBefore AND r.requestHash = :requestHash))")
+    int reclaim(String recordKey, String requestHash, LocalDateTime now, LocalDateTime expiresAt,
+                LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -2,12 +2,24 @@ package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.Notification;
 import org.pharmacy.api.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    @EntityGraph("Notification.user")
     List<Notification> findByUser(User user);
+
+    @EntityGraph("Notification.user")
     List<Notification> findByUserAndRead(User user, Boolean read);  // ← Changed from IsRead to Read
+
+    @EntityGraph("Notification.user")
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
+    @EntityGraph("Notification.user")
+    Optional<Notification> findWithUserById(Long id);
 }
\ No newline at end of file
@@ -6,10 +6,74 @@
  */
 package org.pharmacy.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.pharmacy.api.dto.OrderItemSummary;
+import org.pharmacy.api.dto.TopSeller;
+import org.pharmacy.api.model.Order;
 import org.pharmacy.api.model.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // product id and total quantity across the given orders
+    @Query("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i WHERE i.order.id IN :orderIds GROUP BY i.product.id")
+    List<Object[]> sumQuantitiesByProduct(Collection<Long> orderIds);
+
+    // [product id, units, revenue, order created at] rows for one order, none if it was placed before :since
+    @Query("SELECT i.product.id, SUM(i.quantity), SUM(i.subtotal), o.createdAt FROM OrderItem i JOIN i.order o " +
+            "WHERE o.id = :orderId AND o.createdAt >= :since GROUP BY i.product.id, o.createdAt")
+    List<Object[]> sumByProductForOrderPlacedSince(Long orderId, LocalDateTime since);
+
+    // [order id, created at, status, category, units, revenue] rows per order and product category
+    @Query("SELECT o.id, o.createdAt, o.status, p.category, SUM(i.quantity), SUM(i.subtotal) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p WHERE o.id IN :orderIds " +
+            "GROUP BY o.id, o.createdAt, o.status, p.category")
+    List<Object[]> sumByOrderAndCategory(Collection<Long> orderIds);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.id, o.createdAt, o.status, p.category, SUM(i.quantity), SUM(i.subtotal) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p WHERE (:from IS NULL OR o.createdAt >= :from) " +
+            "GROUP BY o.id, o.createdAt, o.status, p.category ORDER BY o.id")
+    Stream<Object[]> streamSumsByOrderAndCategory(LocalDateTime from);
+
+    // [order id, status, created at, quantity, subtotal, brand, category, prescription required] per line, each order's lines together
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT o.id, o.status, o.createdAt, i.quantity, i.subtotal, p.brand, p.category, p.prescriptionRequired " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p ORDER BY o.id, i.id")
+    Stream<Object[]> streamSnapshotRows();
+
+    String TOP_SELLERS = "SELECT new org.pharmacy.api.dto.TopSeller(p.id, p.name, p.category, SUM(i.quantity), SUM(i.subtotal)) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to AND o.status <> 'CANCELLED' " +
+            "AND (:category IS NULL OR p.category = :category) GROUP BY p.id, p.name, p.category ";
+
+    @Query(TOP_SELLERS + "ORDER BY SUM(i.quantity) DESC, p.id")
+    List<TopSeller> findTopSellersByUnits(LocalDateTime from, LocalDateTime to, String category, Pageable pageable);
+
+    @Query(TOP_SELLERS + "ORDER BY SUM(i.subtotal) DESC, p.id")
+    List<TopSeller> findTopSellersByRevenue(LocalDateTime from, LocalDateTime to, String category, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN :orderIds")
+    int deleteByOrderIds(Collection<Long> orderIds);
+
+    // Forward-only cursor for exports; null filters match everything
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.pharmacy.api.dto.OrderItemSummary(o.id, o.status, o.createdAt, i.id, p.id, p.name, " +
+            "i.quantity, i.price, i.subtotal) FROM OrderItem i JOIN i.order o JOIN i.product p " +
+            "WHERE (:status IS NULL OR o.status = :status) " +
+            "AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to) ORDER BY o.id, i.id")
+    Stream<OrderItemSummary> streamSummaries(Order.OrderStatus status, LocalDateTime from, LocalDateTime to);
 }
@@ -1,16 +1,73 @@
 package org.pharmacy.api.repository;
 
+import org.pharmacy.api.dto.OrderSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.pharmacy.api.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
 
+    String SUMMARY = "SELECT new org.pharmacy.api.dto.OrderSummary(o.id, u.id, u.fullName, u.email, o.status, " +
+            "o.totalAmount, SIZE(o.items), o.paymentMethod, o.shippingAddress, p.id, o.createdAt, o.updatedAt) " +
+            "FROM Order o JOIN o.user u LEFT JOIN o.prescription p ";
+
+    @Query(SUMMARY + "ORDER BY o.id")
+    List<OrderSummary> findAllSummaries();
+
+    @Query(SUMMARY + "WHERE u.id = :userId ORDER BY o.id")
+    List<OrderSummary> findSummariesByUserId(Long userId);
+
+    @Query(SUMMARY + "WHERE o.id > :id ORDER BY o.id")
+    List<OrderSummary> findSummariesAfter(Long id, Pageable pageable);
+
+    // Forward-only cursor for exports; null filters match everything
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY + "WHERE (:status IS NULL OR o.status = :status) " +
+            "AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to) ORDER BY o.id")
+    Stream<OrderSummary> streamSummaries(Order.OrderStatus status, LocalDateTime from, LocalDateTime to);
+
+    // Full graph for a single order
+    @EntityGraph("Order.detail")
+    Optional<Order> findDetailedById(Long id);
+
+    @EntityGraph("Order.detail")
+    List<Order> findByIdIn(Collection<Long> ids);
+
+    // id, status, user id and total only, for validating bulk status changes
+    @Query("SELECT o.id, o.status, o.user.id, o.totalAmount FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusesByIdIn(Collection<Long> ids);
+
+    // Bumps the version itself, as bulk updates bypass optimistic locking
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now, o.version = o.version + 1 " +
+            "WHERE o.id IN :ids AND o.status = :from")
+    int updateStatus(Collection<Long> ids, Order.OrderStatus from, Order.OrderStatus to, LocalDateTime now);
+
+    // Finished orders last touched before the cutoff, oldest first
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.updatedAt < :cutoff ORDER BY o.id")
+    List<Long> findArchivableIds(Collection<Order.OrderStatus> statuses, LocalDateTime cutoff, Pageable pageable);
+
+    // Only deletes orders still finished and old enough, so the caller can tell if one changed meanwhile
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.status IN :statuses AND o.updatedAt < :cutoff")
+    int deleteArchived(Collection<Long> ids, Collection<Order.OrderStatus> statuses, LocalDateTime cutoff);
+
     long countByStatus(Order.OrderStatus status);
     long countByUserId(Long userId);
     long countByUserIdAndStatus(Long userId, Order.OrderStatus status);
@@ -18,6 +75,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status = 'DELIVERED'")
     Double sumTotalAmount();
 
-    @Query("SELECT COALESCE(AVG(o.totalAmount), 0) FROM Order o WHERE o.status = 'DELIVERED'")
-    Double averageOrderAmount();
+    // One row: [delivered revenue, delivered count, pending/confirmed count] over live and archived orders
+    @Query(value = "SELECT SUM(CASE WHEN status = 'DELIVERED' THEN total_amount ELSE 0 END), " +
+            "SUM(CASE WHEN status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN status IN ('PENDING', 'CONFIRMED') THEN 1 ELSE 0 END) " +
+            "FROM (SELECT status, total_amount FROM orders " +
+            "UNION ALL SELECT status, total_amount FROM archived_orders) all_orders", nativeQuery = true)
+    List<Object[]> salesTotals();
+
+    // [status, count, total amount] rows over live and archived orders
+    @Query(value = "SELECT status, COUNT(*), SUM(total_amount) " +
+            "FROM (SELECT status, total_amount FROM orders " +
+            "UNION ALL SELECT status, total_amount FROM archived_orders) all_orders GROUP BY status", nativeQuery = true)
+    List<Object[]> countGroupedByStatus();
 }
\ No newline at end of file
@@ -1,12 +1,26 @@
 package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.Payment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    @EntityGraph("Payment.detail")
     List<Payment> findByUserId(Long userId);
+
+    @EntityGraph("Payment.detail")
+    Optional<Payment> findDetailedById(Long id);
     List<Payment> findByOrderId(Long orderId);
+    List<Payment> findByOrderIdIn(Collection<Long> orderIds);
+
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.order.id IN :orderIds")
+    int deleteByOrderIds(Collection<Long> orderIds);
 }
\ No newline at end of file
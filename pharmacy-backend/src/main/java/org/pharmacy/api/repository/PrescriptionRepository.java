@@ -2,17 +2,42 @@ package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.Prescription;
 import org.pharmacy.api.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
+    // Prescriptions are always returned with their owner and reviewer, so every read opts into the graph
+    @Override
+    @EntityGraph("Prescription.users")
+    Optional<Prescription> findById(Long id);
+
+    @Override
+    @EntityGraph("Prescription.users")
+    List<Prescription> findAll();
+
+    @EntityGraph("Prescription.users")
     List<Prescription> findByUser(User user);
+
+    @EntityGraph("Prescription.users")
     List<Prescription> findByUserId(Long userId);
+
+    @EntityGraph("Prescription.users")
     List<Prescription> findByStatus(Prescription.PrescriptionStatus status);
 
+    @EntityGraph("Prescription.users")
+    List<Prescription> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     long countByStatus(Prescription.PrescriptionStatus status);
+
+    // [status, count] rows
+    @Query("SELECT p.status, COUNT(p) FROM Prescription p GROUP BY p.status")
+    List<Object[]> countGroupedByStatus();
     long countByUserId(Long userId);
     long countByUserIdAndStatus(Long userId, Prescription.PrescriptionStatus status);
 }
\ No newline at end of file
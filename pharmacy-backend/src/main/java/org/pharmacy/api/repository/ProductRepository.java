@@ -15,6 +15,27 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     long countByStockQuantityLessThan(int quantity);
     long countByStockQuantity(int quantity);
 
-    @Query("SELECT COALESCE(SUM(p.price * p.stockQuantity), 0) FROM Product p")
+    // Each product's price, reorder level and available stock: the column plus movements not folded in yet
+    String AVAILABLE_STOCK_TABLE = "(SELECT p.price, p.reorder_level, p.stock_quantity + COALESCE(m.delta, 0) AS available " +
+            "FROM products p LEFT JOIN (SELECT product_id, SUM(delta) AS delta FROM stock_movements " +
+            "GROUP BY product_id) m ON m.product_id = p.id) stock";
+
+    @Query(value = "SELECT COALESCE(SUM(price * available), 0) FROM " + AVAILABLE_STOCK_TABLE, nativeQuery = true)
     Double sumInventoryValue();
+
+    // One row: [products, out of stock, low stock, inventory value] over available stock
+    @Query(value = "SELECT COUNT(*), SUM(CASE WHEN available = 0 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN available > 0 AND available <= reorder_level THEN 1 ELSE 0 END), " +
+            "SUM(price * available) FROM " + AVAILABLE_STOCK_TABLE, nativeQuery = true)
+    List<Object[]> inventoryTotals();
+
+    // Stock column plus movements not folded in yet, read in one statement so a concurrent fold is seen whole or not at all
+    String AVAILABLE_STOCK = "p.stockQuantity + COALESCE((SELECT SUM(m.delta) FROM StockMovement m WHERE m.productId = p.id), 0)";
+
+    @Query("SELECT " + AVAILABLE_STOCK + " FROM Product p WHERE p.id = :id")
+    Number findAvailableStockById(Long id);
+
+    // [id, available stock] rows for recovering the stock ledger
+    @Query("SELECT p.id, " + AVAILABLE_STOCK + " FROM Product p")
+    List<Object[]> findAllAvailableStock();
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.Review;
 import org.pharmacy.api.model.Product;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -15,5 +16,6 @@ import java.util.List;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProduct(Product product);
+    @EntityGraph("Review.productAndUser")
     List<Review> findByProductId(Long productId);
 }
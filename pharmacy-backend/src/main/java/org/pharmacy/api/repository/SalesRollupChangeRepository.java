@@ -0,0 +1,36 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.repository;
+
+import org.pharmacy.api.model.SalesRollupChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesRollupChangeRepository extends JpaRepository<SalesRollupChange, Long> {
+
+    // Oldest first
+    @Query("SELECT c FROM SalesRollupChange c ORDER BY c.id")
+    List<SalesRollupChange> findPending(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollupChange c WHERE c.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    // Changes of orders created from :from on; a null :from matches every change
+    @Modifying
+    @Query("DELETE FROM SalesRollupChange c WHERE :from IS NULL " +
+            "OR c.orderId IN (SELECT o.id FROM Order o WHERE o.createdAt >= :from)")
+    int deleteByOrderCreatedFrom(LocalDateTime from);
+}
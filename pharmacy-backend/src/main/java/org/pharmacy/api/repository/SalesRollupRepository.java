@@ -0,0 +1,33 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.repository;
+
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    // [hour, orders, units, revenue] rows; a null status sums every status
+    @Query("SELECT r.key.bucketStart, SUM(r.orderCount), SUM(r.units), SUM(r.revenue) FROM SalesRollup r " +
+            "WHERE r.key.bucketStart >= :from AND r.key.bucketStart < :to AND r.key.category = :category " +
+            "AND (:status IS NULL OR r.key.status = :status) " +
+            "GROUP BY r.key.bucketStart ORDER BY r.key.bucketStart")
+    List<Object[]> sumByHour(LocalDateTime from, LocalDateTime to, String category, Order.OrderStatus status);
+
+    // A null :from matches every bucket
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE :from IS NULL OR r.key.bucketStart >= :from")
+    int deleteFrom(LocalDateTime from);
+}
@@ -0,0 +1,33 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.repository;
+
+import org.pharmacy.api.model.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // [id, product id, delta] rows, oldest first
+    @Query("SELECT m.id, m.productId, m.delta FROM StockMovement m ORDER BY m.id")
+    List<Object[]> findPending(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.productId = :productId")
+    int deleteByProductId(Long productId);
+}
@@ -1,15 +1,37 @@
 package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.SupportTicket;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SupportTicketRepository extends JpaRepository<SupportTicket, Long> {
+    // Tickets are always returned with their author, so every read opts into the graph
+    @Override
+    @EntityGraph("SupportTicket.user")
+    Optional<SupportTicket> findById(Long id);
+
+    @Override
+    @EntityGraph("SupportTicket.user")
+    List<SupportTicket> findAll();
+
+    @EntityGraph("SupportTicket.user")
     List<SupportTicket> findByUserId(Long userId);
+
     List<SupportTicket> findByStatus(SupportTicket.TicketStatus status);  // ← CHANGED
 
+    @EntityGraph("SupportTicket.user")
+    List<SupportTicket> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     long countByStatus(SupportTicket.TicketStatus status);  // ← CHANGED
+
+    // [status, count] rows
+    @Query("SELECT t.status, COUNT(t) FROM SupportTicket t GROUP BY t.status")
+    List<Object[]> countGroupedByStatus();
     long countByUserId(Long userId);
 }
\ No newline at end of file
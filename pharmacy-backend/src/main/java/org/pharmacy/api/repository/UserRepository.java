@@ -1,13 +1,32 @@
 package org.pharmacy.api.repository;
 
 import org.pharmacy.api.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     long countByRole(User.UserRole role);
+
+    // [role, count] rows
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupedByRole();
+
+    // One row: [users, customers, pharmacists, admins, created after since]
+    @Query("SELECT COUNT(u), SUM(CASE WHEN u.role = 'CUSTOMER' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN u.role = 'PHARMACIST' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN u.role = 'ADMIN' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN u.createdAt > :since THEN 1 ELSE 0 END) FROM User u")
+    List<Object[]> userTotals(LocalDateTime since);
 }
\ No newline at end of file
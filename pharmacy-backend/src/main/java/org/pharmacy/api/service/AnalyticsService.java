@@ -6,107 +6,226 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.dto.BasketSizeBucket;
+import org.pharmacy.api.dto.RevenueBreakdown;
+import org.pharmacy.api.dto.SalesTimeseriesPoint;
+import org.pharmacy.api.dto.TopSeller;
 import org.pharmacy.api.model.Order;
 import org.pharmacy.api.model.Product;
-import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.OrderItemRepository;
 import org.pharmacy.api.repository.OrderRepository;
 import org.pharmacy.api.repository.ProductRepository;
 import org.pharmacy.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final SalesRollups salesRollups;
+    private final TopSellers topSellers;
+    private final AnalyticsSnapshot analyticsSnapshot;
+    private final OrderArchive orderArchive;
+    private final ProductCatalog productCatalog;
 
-    public Map<String, Object> getSalesReport() {
-        Map<String, Object> report = new HashMap<>();
-        List<Order> allOrders = orderRepository.findAll();
-
-        double totalRevenue = allOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .mapToDouble(Order::getTotalAmount)
-                .sum();
+    private static final int MAX_TOP_SELLERS = 100;
 
-        long totalOrders = allOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .count();
+    // Each report is one aggregate query; only its single result row reaches the heap
 
-        long pendingOrders = allOrders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.PENDING ||
-                        o.getStatus() == Order.OrderStatus.CONFIRMED)
-                .count();
+    public Map<String, Object> getSalesReport() {
+        Object[] totals = singleRow(orderRepository.salesTotals());
+        double totalRevenue = asDouble(totals[0]);
+        long totalOrders = asLong(totals[1]);
 
+        Map<String, Object> report = new HashMap<>();
         report.put("totalRevenue", totalRevenue);
         report.put("totalOrders", totalOrders);
-        report.put("pendingOrders", pendingOrders);
+        report.put("pendingOrders", asLong(totals[2]));
         report.put("averageOrderValue", totalOrders > 0 ? totalRevenue / totalOrders : 0);
 
         return report;
     }
 
     public Map<String, Object> getInventoryReport() {
-        Map<String, Object> report = new HashMap<>();
-        List<Product> allProducts = productRepository.findAll();
+        Object[] totals = singleRow(productRepository.inventoryTotals());
 
-        long totalProducts = allProducts.size();
-        long outOfStock = allProducts.stream()
-                .filter(p -> p.getStockQuantity() == 0)
-                .count();
+        Map<String, Object> report = new HashMap<>();
+        report.put("totalProducts", asLong(totals[0]));
+        report.put("outOfStock", asLong(totals[1]));
+        report.put("lowStock", asLong(totals[2]));
+        report.put("totalInventoryValue", asDouble(totals[3]));
 
-        long lowStock = allProducts.stream()
-                .filter(p -> p.getStockQuantity() > 0 && p.getStockQuantity() <= p.getReorderLevel())
-                .count();
+        return report;
+    }
 
-        double totalInventoryValue = allProducts.stream()
-                .mapToDouble(p -> p.getPrice() * p.getStockQuantity())
-                .sum();
+    public Map<String, Object> getUsersReport() {
+        Object[] totals = singleRow(userRepository.userTotals(LocalDateTime.now().minusDays(30)));
 
-        report.put("totalProducts", totalProducts);
-        report.put("outOfStock", outOfStock);
-        report.put("lowStock", lowStock);
-        report.put("totalInventoryValue", totalInventoryValue);
+        Map<String, Object> report = new HashMap<>();
+        report.put("totalUsers", asLong(totals[0]));
+        report.put("customers", asLong(totals[1]));
+        report.put("pharmacists", asLong(totals[2]));
+        report.put("admins", asLong(totals[3]));
+        report.put("newUsersLast30Days", asLong(totals[4]));
 
         return report;
     }
 
-    public Map<String, Object> getUsersReport() {
-        Map<String, Object> report = new HashMap<>();
-        List<User> allUsers = userRepository.findAll();
+    /**
+     * Sales per hour, day or week, summed from the hourly rollups. Defaults
+     * to the last seven days.
+     */
+    public List<SalesTimeseriesPoint> getSalesTimeseries(LocalDateTime from, LocalDateTime to, String granularity,
+                                                         String status, String category) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        return salesRollups.getTimeseries(start, end, SalesRollups.Granularity.of(granularity), orderStatus(status),
+                category);
+    }
+
+    /**
+     * Best sellers by units or revenue over whole days, grouped in the
+     * database. Defaults to the last 30 days. When the range reaches back
+     * into the archive, the live totals are read in full and merged in
+     * memory with the archived lines, which are unpacked one order at a time.
+     */
+    @Transactional(readOnly = true)
+    public List<TopSeller> getTopSellers(LocalDate from, LocalDate to, String by, String category, int limit) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(29);
+        if (first.isAfter(last)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        int size = topSellerLimit(limit);
+        boolean revenue = byRevenue(by);
+        String categoryFilter = category != null && !category.isBlank() ? category : null;
+        LocalDateTime start = first.atStartOfDay();
+        LocalDateTime end = last.plusDays(1).atStartOfDay();
+        if (!orderArchive.hasOrdersPlaced(start, end)) {
+            PageRequest page = PageRequest.of(0, size);
+            return revenue
+                    ? orderItemRepository.findTopSellersByRevenue(start, end, categoryFilter, page)
+                    : orderItemRepository.findTopSellersByUnits(start, end, categoryFilter, page);
+        }
+
+        Map<Long, TopSeller> sellers = new HashMap<>();
+        for (TopSeller seller : orderItemRepository.findTopSellersByUnits(start, end, categoryFilter,
+                Pageable.unpaged())) {
+            sellers.put(seller.getProductId(), seller);
+        }
+        try (Stream<OrderArchive.Lines> orders = orderArchive.streamLines(null, start, end)) {
+            orders.filter(order -> order.getStatus() != Order.OrderStatus.CANCELLED).forEach(order -> {
+                for (OrderArchive.ItemRow item : order.getItems()) {
+                    Product product = productCatalog.findById(item.getProductId()).orElse(null);
+                    String productCategory = product != null ? product.getCategory() : null;
+                    if (categoryFilter != null && !categoryFilter.equals(productCategory)) {
+                        continue;
+                    }
+                    TopSeller seller = sellers.computeIfAbsent(item.getProductId(), id -> new TopSeller(id,
+                            product != null ? product.getName() : item.getProductName(), productCategory, 0L, 0.0));
+                    seller.setUnits(seller.getUnits() + item.getQuantity());
+                    seller.setRevenue(seller.getRevenue() + item.getSubtotal());
+                }
+            });
+        }
+        Comparator<TopSeller> ranking = revenue
+                ? Comparator.comparing(TopSeller::getRevenue).reversed()
+                : Comparator.comparing(TopSeller::getUnits).reversed();
+        return sellers.values().stream()
+                .sorted(ranking.thenComparing(TopSeller::getProductId))
+                .limit(size)
+                .toList();
+    }
+
+    /**
+     * Best sellers of the last 24 hours from the in-memory sketches.
+     */
+    public List<TopSeller> getLiveTopSellers(String by, String category, int limit) {
+        return topSellers.getTop(byRevenue(by), category, topSellerLimit(limit));
+    }
 
-        long totalUsers = allUsers.size();
-        long customers = allUsers.stream()
-                .filter(u -> u.getRole() == User.UserRole.CUSTOMER)
-                .count();
+    /**
+     * Revenue per brand, category or prescription group from the in-memory
+     * snapshot, over whole days; null dates leave the range open.
+     */
+    public List<RevenueBreakdown> getRevenueBreakdown(String by, LocalDate from, LocalDate to, String status) {
+        return analyticsSnapshot.getRevenue(AnalyticsSnapshot.Dimension.of(by), startOf(from), endOf(from, to),
+                orderStatus(status));
+    }
 
-        long pharmacists = allUsers.stream()
-                .filter(u -> u.getRole() == User.UserRole.PHARMACIST)
-                .count();
+    public List<BasketSizeBucket> getBasketSizes(LocalDate from, LocalDate to, String status) {
+        return analyticsSnapshot.getBasketSizes(startOf(from), endOf(from, to), orderStatus(status));
+    }
 
-        long admins = allUsers.stream()
-                .filter(u -> u.getRole() == User.UserRole.ADMIN)
-                .count();
+    public Map<String, Object> getSnapshotStats() {
+        return analyticsSnapshot.getStats();
+    }
 
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        long newUsers = allUsers.stream()
-                .filter(u -> u.getCreatedAt().isAfter(thirtyDaysAgo))
-                .count();
+    private static LocalDateTime startOf(LocalDate from) {
+        return from != null ? from.atStartOfDay() : null;
+    }
 
-        report.put("totalUsers", totalUsers);
-        report.put("customers", customers);
-        report.put("pharmacists", pharmacists);
-        report.put("admins", admins);
-        report.put("newUsersLast30Days", newUsers);
+    private static LocalDateTime endOf(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        return to != null ? to.plusDays(1).atStartOfDay() : null;
+    }
 
-        return report;
+    private static Order.OrderStatus orderStatus(String status) {
+        if (status == null || status.isBlank()) {
+            return null;
+        }
+        try {
+            return Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid order status: " + status);
+        }
+    }
+
+    private static boolean byRevenue(String by) {
+        if ("revenue".equalsIgnoreCase(by)) {
+            return true;
+        }
+        if ("units".equalsIgnoreCase(by)) {
+            return false;
+        }
+        throw new RuntimeException("Invalid ranking: " + by + ", expected units or revenue");
+    }
+
+    private static int topSellerLimit(int limit) {
+        if (limit < 1) {
+            throw new RuntimeException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_TOP_SELLERS);
+    }
+
+    private static Object[] singleRow(List<Object[]> rows) {
+        return rows.get(0);
+    }
+
+    // SUM over an empty table is null
+    private static long asLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double asDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : 0.0;
     }
-}
\ No newline at end of file
+}
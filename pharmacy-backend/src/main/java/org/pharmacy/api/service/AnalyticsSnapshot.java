@@ -0,0 +1,425 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.dto.BasketSizeBucket;
+import org.pharmacy.api.dto.RevenueBreakdown;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.repository.OrderItemRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Column-oriented copy of every order line, archived or live, for ad-hoc
+ * reports. A scheduled refresh streams the lines once and packs them into
+ * primitive arrays, one per attribute, with brands and categories
+ * dictionary-encoded and statuses stored as their ordinal. Reports scan the
+ * arrays in chunks on the fork/join pool and add up per-chunk totals, so
+ * they use every core and never query the database. Results are as fresh
+ * as the last refresh.
+ */
+@Component
+public class AnalyticsSnapshot {
+
+    // Rows one task scans before it stops splitting
+    private static final int LEAF_ROWS = 1 << 14;
+    private static final int MAX_BASKET = 20;
+    private static final String[] PRESCRIPTION_GROUPS = {"PRESCRIPTION", "OTC"};
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final ProductCatalog productCatalog;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Columns columns = new Builder().build();
+    private final AtomicLong refreshes = new AtomicLong();
+    private volatile long lastRefreshMillis;
+
+    public AnalyticsSnapshot(OrderItemRepository orderItemRepository, OrderArchive orderArchive,
+                             ProductCatalog productCatalog, PlatformTransactionManager transactionManager) {
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.productCatalog = productCatalog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Rebuild the snapshot off to the side and swap it in; reports keep
+     * scanning the previous one meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${pharmacy.reports.snapshot-refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long started = System.nanoTime();
+        columns = transactionTemplate.execute(status -> {
+            Builder builder = new Builder();
+            // Archived lines are laid out like live ones, with brand and category as the catalog has them now
+            try (Stream<OrderArchive.Lines> orders = orderArchive.streamLines(null, null, null)) {
+                orders.forEach(order -> {
+                    for (OrderArchive.ItemRow item : order.getItems()) {
+                        Product product = productCatalog.findById(item.getProductId()).orElse(null);
+                        builder.add(new Object[]{order.getOrderId(), order.getStatus(), order.getCreatedAt(),
+                                item.getQuantity(), item.getSubtotal(),
+                                product != null ? product.getBrand() : null,
+                                product != null ? product.getCategory() : null,
+                                product != null && Boolean.TRUE.equals(product.getPrescriptionRequired())});
+                    }
+                });
+            }
+            try (Stream<Object[]> rows = orderItemRepository.streamSnapshotRows()) {
+                rows.forEach(builder::add);
+            }
+            return builder.build();
+        });
+        lastRefreshMillis = (System.nanoTime() - started) / 1_000_000;
+        refreshes.incrementAndGet();
+    }
+
+    /**
+     * Lines, units and revenue per brand, category or prescription group,
+     * largest revenue first.
+     *
+     * @param from   first order time to include, or null
+     * @param to     order time to stop before, or null
+     * @param status only orders in this status, or null for all
+     */
+    public List<RevenueBreakdown> getRevenue(Dimension by, LocalDateTime from, LocalDateTime to,
+                                             Order.OrderStatus status) {
+        Columns snapshot = columns;
+        String[] keys = by == Dimension.BRAND ? snapshot.brands
+                : by == Dimension.CATEGORY ? snapshot.categories
+                : PRESCRIPTION_GROUPS;
+        long[][] totals = ForkJoinPool.commonPool().invoke(
+                new LineScan(snapshot, new OrderFilter(from, to, status), by, keys.length, 0, snapshot.lines));
+
+        long revenue = 0;
+        for (long cents : totals[2]) {
+            revenue += cents;
+        }
+        List<RevenueBreakdown> breakdown = new ArrayList<>();
+        for (int group = 0; group < keys.length; group++) {
+            if (totals[0][group] > 0) {
+                breakdown.add(new RevenueBreakdown(keys[group], totals[0][group], totals[1][group],
+                        totals[2][group] / 100.0, revenue > 0 ? (double) totals[2][group] / revenue : 0.0));
+            }
+        }
+        breakdown.sort(Comparator.comparingDouble(RevenueBreakdown::getRevenue).reversed());
+        return breakdown;
+    }
+
+    /**
+     * Orders per number of lines, from one line up to an open-ended last bucket.
+     */
+    public List<BasketSizeBucket> getBasketSizes(LocalDateTime from, LocalDateTime to, Order.OrderStatus status) {
+        Columns snapshot = columns;
+        long[][] totals = ForkJoinPool.commonPool().invoke(
+                new BasketScan(snapshot, new OrderFilter(from, to, status), 0, snapshot.orders));
+
+        long orders = 0;
+        for (long count : totals[0]) {
+            orders += count;
+        }
+        List<BasketSizeBucket> buckets = new ArrayList<>();
+        for (int size = 1; size <= MAX_BASKET; size++) {
+            long count = totals[0][size];
+            if (count > 0) {
+                buckets.add(new BasketSizeBucket(size == MAX_BASKET ? size + "+" : String.valueOf(size), count,
+                        (double) count / orders, totals[1][size] / 100.0 / count));
+            }
+        }
+        return buckets;
+    }
+
+    public Map<String, Object> getStats() {
+        Columns snapshot = columns;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("orders", snapshot.orders);
+        stats.put("lines", snapshot.lines);
+        stats.put("brands", snapshot.brands.length);
+        stats.put("categories", snapshot.categories.length);
+        stats.put("builtAt", snapshot.builtAt);
+        stats.put("refreshes", refreshes.get());
+        stats.put("lastRefreshMillis", lastRefreshMillis);
+        stats.put("parallelism", ForkJoinPool.commonPool().getParallelism());
+        return stats;
+    }
+
+    public enum Dimension {
+        BRAND, CATEGORY, PRESCRIPTION;
+
+        public static Dimension of(String value) {
+            for (Dimension dimension : values()) {
+                if (dimension.name().equalsIgnoreCase(value)) {
+                    return dimension;
+                }
+            }
+            throw new RuntimeException("Invalid breakdown: " + value + ", expected brand, category or prescription");
+        }
+    }
+
+    /**
+     * One immutable snapshot. Order columns are indexed by order row, line
+     * columns by line row; the lines of order row {@code o} are
+     * {@code firstLine[o]} up to {@code firstLine[o + 1]}.
+     */
+    private static final class Columns {
+        private final int orders;
+        private final long[] orderIds;
+        private final byte[] orderStatus;
+        private final long[] orderCreatedAt;
+        private final long[] orderCents;
+        private final int[] firstLine;
+
+        private final int lines;
+        private final int[] lineOrder;
+        private final int[] quantity;
+        private final long[] cents;
+        private final int[] brand;
+        private final int[] category;
+        private final boolean[] prescription;
+
+        private final String[] brands;
+        private final String[] categories;
+        private final LocalDateTime builtAt = LocalDateTime.now();
+
+        private Columns(Builder builder) {
+            this.orders = builder.orders;
+            this.orderIds = Arrays.copyOf(builder.orderIds, orders);
+            this.orderStatus = Arrays.copyOf(builder.orderStatus, orders);
+            this.orderCreatedAt = Arrays.copyOf(builder.orderCreatedAt, orders);
+            this.orderCents = Arrays.copyOf(builder.orderCents, orders);
+            this.firstLine = Arrays.copyOf(builder.firstLine, orders + 1);
+            this.firstLine[orders] = builder.lines;
+            this.lines = builder.lines;
+            this.lineOrder = Arrays.copyOf(builder.lineOrder, lines);
+            this.quantity = Arrays.copyOf(builder.quantity, lines);
+            this.cents = Arrays.copyOf(builder.cents, lines);
+            this.brand = Arrays.copyOf(builder.brand, lines);
+            this.category = Arrays.copyOf(builder.category, lines);
+            this.prescription = Arrays.copyOf(builder.prescription, lines);
+            this.brands = builder.brands.values.toArray(new String[0]);
+            this.categories = builder.categories.values.toArray(new String[0]);
+        }
+    }
+
+    private static final class Builder {
+        private int orders;
+        private long[] orderIds = new long[1024];
+        private byte[] orderStatus = new byte[1024];
+        private long[] orderCreatedAt = new long[1024];
+        private long[] orderCents = new long[1024];
+        private int[] firstLine = new int[1025];
+
+        private int lines;
+        private int[] lineOrder = new int[4096];
+        private int[] quantity = new int[4096];
+        private long[] cents = new long[4096];
+        private int[] brand = new int[4096];
+        private int[] category = new int[4096];
+        private boolean[] prescription = new boolean[4096];
+
+        private final Dictionary brands = new Dictionary();
+        private final Dictionary categories = new Dictionary();
+
+        // Rows arrive ordered by order id, so a new id starts the next order row
+        private void add(Object[] row) {
+            long orderId = ((Number) row[0]).longValue();
+            if (orders == 0 || orderIds[orders - 1] != orderId) {
+                if (orders == orderIds.length) {
+                    int capacity = orders * 2;
+                    orderIds = Arrays.copyOf(orderIds, capacity);
+                    orderStatus = Arrays.copyOf(orderStatus, capacity);
+                    orderCreatedAt = Arrays.copyOf(orderCreatedAt, capacity);
+                    orderCents = Arrays.copyOf(orderCents, capacity);
+                    firstLine = Arrays.copyOf(firstLine, capacity + 1);
+                }
+                orderIds[orders] = orderId;
+                orderStatus[orders] = (byte) ((Order.OrderStatus) row[1]).ordinal();
+                orderCreatedAt[orders] = epochSecond((LocalDateTime) row[2]);
+                firstLine[orders] = lines;
+                orders++;
+            }
+            if (lines == lineOrder.length) {
+                int capacity = lines * 2;
+                lineOrder = Arrays.copyOf(lineOrder, capacity);
+                quantity = Arrays.copyOf(quantity, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+                brand = Arrays.copyOf(brand, capacity);
+                category = Arrays.copyOf(category, capacity);
+                prescription = Arrays.copyOf(prescription, capacity);
+            }
+            long amount = row[4] != null ? Math.round(((Number) row[4]).doubleValue() * 100) : 0L;
+            lineOrder[lines] = orders - 1;
+            quantity[lines] = row[3] != null ? ((Number) row[3]).intValue() : 0;
+            cents[lines] = amount;
+            brand[lines] = brands.code((String) row[5]);
+            category[lines] = categories.code((String) row[6]);
+            prescription[lines] = Boolean.TRUE.equals(row[7]);
+            orderCents[orders - 1] += amount;
+            lines++;
+        }
+
+        private Columns build() {
+            return new Columns(this);
+        }
+    }
+
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+
+    private static final class OrderFilter {
+        private final long from;
+        private final long to;
+        private final int status;
+
+        private OrderFilter(LocalDateTime from, LocalDateTime to, Order.OrderStatus status) {
+            this.from = from != null ? epochSecond(from) : Long.MIN_VALUE;
+            this.to = to != null ? epochSecond(to) : Long.MAX_VALUE;
+            this.status = status != null ? status.ordinal() : -1;
+        }
+
+        private boolean matches(Columns columns, int order) {
+            long createdAt = columns.orderCreatedAt[order];
+            return createdAt >= from && createdAt < to && (status < 0 || columns.orderStatus[order] == status);
+        }
+    }
+
+    /**
+     * Splits its row range in halves until it is small enough to scan, then
+     * sums the halves. Every result is a fresh array, so no task shares state.
+     */
+    private abstract static class Scan extends RecursiveTask<long[][]> {
+        protected final Columns columns;
+        protected final OrderFilter filter;
+        protected final int from;
+        protected final int to;
+
+        protected Scan(Columns columns, OrderFilter filter, int from, int to) {
+            this.columns = columns;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected abstract Scan split(int from, int to);
+
+        protected abstract long[][] scan();
+
+        @Override
+        protected long[][] compute() {
+            if (to - from <= LEAF_ROWS) {
+                return scan();
+            }
+            int middle = (from + to) >>> 1;
+            Scan left = split(from, middle);
+            left.fork();
+            long[][] totals = split(middle, to).compute();
+            long[][] leftTotals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                for (int j = 0; j < totals[i].length; j++) {
+                    totals[i][j] += leftTotals[i][j];
+                }
+            }
+            return totals;
+        }
+    }
+
+    // [lines, units, cents] per group
+    private static final class LineScan extends Scan {
+        private final Dimension by;
+        private final int groups;
+
+        private LineScan(Columns columns, OrderFilter filter, Dimension by, int groups, int from, int to) {
+            super(columns, filter, from, to);
+            this.by = by;
+            this.groups = groups;
+        }
+
+        @Override
+        protected Scan split(int from, int to) {
+            return new LineScan(columns, filter, by, groups, from, to);
+        }
+
+        @Override
+        protected long[][] scan() {
+            long[][] totals = new long[3][groups];
+            int[] codes = by == Dimension.BRAND ? columns.brand : by == Dimension.CATEGORY ? columns.category : null;
+            for (int line = from; line < to; line++) {
+                if (!filter.matches(columns, columns.lineOrder[line])) {
+                    continue;
+                }
+                int group = codes != null ? codes[line] : columns.prescription[line] ? 0 : 1;
+                totals[0][group]++;
+                totals[1][group] += columns.quantity[line];
+                totals[2][group] += columns.cents[line];
+            }
+            return totals;
+        }
+    }
+
+    // [orders, cents] per basket size
+    private static final class BasketScan extends Scan {
+
+        private BasketScan(Columns columns, OrderFilter filter, int from, int to) {
+            super(columns, filter, from, to);
+        }
+
+        @Override
+        protected Scan split(int from, int to) {
+            return new BasketScan(columns, filter, from, to);
+        }
+
+        @Override
+        protected long[][] scan() {
+            long[][] totals = new long[2][MAX_BASKET + 1];
+            for (int order = from; order < to; order++) {
+                if (!filter.matches(columns, order)) {
+                    continue;
+                }
+                int size = Math.min(columns.firstLine[order + 1] - columns.firstLine[order], MAX_BASKET);
+                totals[0][size]++;
+                totals[1][size] += columns.orderCents[order];
+            }
+            return totals;
+        }
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -8,10 +8,12 @@ package org.pharmacy.api.service;
 
 import org.pharmacy.api.model.User.UserRole;
 import org.pharmacy.api.dto.*;
+import org.pharmacy.api.event.UserRoleChangedEvent;
 import org.pharmacy.api.model.User;
 import org.pharmacy.api.repository.UserRepository;
 import org.pharmacy.api.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -45,6 +48,7 @@ public class AuthService {
         user.setRole(UserRole.valueOf(roleStr));  // ← Changed from Role to UserRole
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserRoleChangedEvent(user.getId(), null, user.getRole()));
 
         // Generate token
         String token = jwtTokenProvider.generateToken(user.getEmail());
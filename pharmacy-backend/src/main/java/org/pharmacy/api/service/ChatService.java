@@ -182,7 +182,7 @@ public class ChatService {
         System.out.println("🔍 Getting all customer conversations...");
 
         // Get all chat messages
-        List<ChatMessage> allMessages = chatMessageRepository.findAll();
+        List<ChatMessage> allMessages = chatMessageRepository.findAllWithParticipants();
         System.out.println("📨 Total messages in database: " + allMessages.size());
 
         if (allMessages.isEmpty()) {
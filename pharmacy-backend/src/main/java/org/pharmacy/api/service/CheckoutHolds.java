@@ -0,0 +1,190 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock held by orders that are waiting for card payment. Holds sit in a
+ * hashed timing wheel: one bucket per tick, with a hold further out than one
+ * revolution simply staying in its bucket until the wheel comes round to
+ * its deadline. Placing or releasing a hold is O(1), and each tick only
+ * touches one bucket, so thousands of open checkouts cost nothing until
+ * they actually expire.
+ */
+@Component
+public class CheckoutHolds {
+
+    private static final int WHEEL_SIZE = 512;
+    // How long an expiry that failed to commit waits before it is tried again
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final Duration ttl;
+    private final long tickMillis;
+    private final long startMillis = System.currentTimeMillis();
+
+    @SuppressWarnings("unchecked")
+    private final Deque<Hold>[] wheel = new Deque[WHEEL_SIZE];
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private long currentTick;
+
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    public CheckoutHolds(@Value("${pharmacy.checkout.hold-ttl-minutes:15}") long ttlMinutes,
+                         @Value("${pharmacy.checkout.hold-tick-ms:1000}") long tickMillis) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.tickMillis = tickMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Hold an order's stock until {@code createdAt} plus the TTL, starting
+     * when the surrounding transaction commits.
+     */
+    public void place(Long orderId, LocalDateTime createdAt) {
+        long deadline = createdAt.plus(ttl).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        afterCommit(() -> {
+            schedule(orderId, deadline);
+            placed.incrementAndGet();
+        });
+    }
+
+    /**
+     * Drop the hold once the surrounding transaction commits; the stock stays
+     * with the order (paid) or is returned by whoever cancelled it.
+     */
+    public void release(Long orderId) {
+        afterCommit(() -> {
+            if (holds.remove(orderId) != null) {
+                released.incrementAndGet();
+            }
+        });
+    }
+
+    public void releaseAll(Collection<Long> orderIds) {
+        afterCommit(() -> {
+            for (Long orderId : orderIds) {
+                if (holds.remove(orderId) != null) {
+                    released.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    public boolean isHeld(Long orderId) {
+        return holds.containsKey(orderId);
+    }
+
+    /**
+     * Advance the wheel to the current time and return the orders whose
+     * holds ran out, removing them. A caller that fails to cancel them must
+     * hand them back through {@link #retry}.
+     */
+    public synchronized List<Long> advance() {
+        long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+        List<Long> due = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            Iterator<Hold> bucket = wheel[(int) (currentTick % WHEEL_SIZE)].iterator();
+            while (bucket.hasNext()) {
+                Hold hold = bucket.next();
+                if (holds.get(hold.orderId) != hold) {
+                    bucket.remove(); // released meanwhile
+                } else if (hold.deadlineTick <= currentTick) {
+                    bucket.remove();
+                    holds.remove(hold.orderId);
+                    due.add(hold.orderId);
+                }
+            }
+        }
+        expired.addAndGet(due.size());
+        return due;
+    }
+
+    /**
+     * Put back holds whose expiry did not commit, due again after a short
+     * delay. Orders paid or cancelled meanwhile are skipped when they come
+     * round again, since the canceller only touches pending orders.
+     */
+    public void retry(Collection<Long> orderIds) {
+        long deadline = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+        for (Long orderId : orderIds) {
+            schedule(orderId, deadline);
+        }
+        expired.addAndGet(-orderIds.size());
+        retried.addAndGet(orderIds.size());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeHolds", holds.size());
+        stats.put("placed", placed.get());
+        stats.put("released", released.get());
+        stats.put("expired", expired.get());
+        stats.put("retried", retried.get());
+        stats.put("ttlMinutes", ttl.toMinutes());
+        return stats;
+    }
+
+    private synchronized void schedule(Long orderId, long deadlineMillis) {
+        // Round up so a hold never expires early; an overdue one goes in the next tick
+        long deadlineTick = Math.max(currentTick + 1,
+                (deadlineMillis - startMillis + tickMillis - 1) / tickMillis);
+        Hold hold = new Hold(orderId, deadlineTick);
+        holds.put(orderId, hold);
+        wheel[(int) (deadlineTick % WHEEL_SIZE)].add(hold);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Hold {
+        private final Long orderId;
+        private final long deadlineTick;
+
+        private Hold(Long orderId, long deadlineTick) {
+            this.orderId = orderId;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.event.OrderStatusChangedEvent;
+import org.pharmacy.api.event.PrescriptionStatusChangedEvent;
+import org.pharmacy.api.event.TicketStatusChangedEvent;
+import org.pharmacy.api.event.UserRoleChangedEvent;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Prescription;
+import org.pharmacy.api.model.SupportTicket;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.OrderRepository;
+import org.pharmacy.api.repository.PrescriptionRepository;
+import org.pharmacy.api.repository.SupportTicketRepository;
+import org.pharmacy.api.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals behind the staff dashboard: orders per status (live and
+ * archived), delivered revenue, prescriptions and tickets per status, and
+ * users per role. Services publish an event for every committed change and
+ * the counters apply it as a delta on striped adders, so reads never touch
+ * the database or take a lock. Changes made without an event (seed data,
+ * direct SQL) and the small window between a commit and its event are
+ * corrected by a periodic reconciliation against grouped counts.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCounters {
+
+    private final OrderRepository orderRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final SupportTicketRepository supportTicketRepository;
+    private final UserRepository userRepository;
+
+    private final Map<Order.OrderStatus, LongAdder> orders = adders(Order.OrderStatus.class);
+    private final DoubleAdder revenue = new DoubleAdder();
+    private final Map<Prescription.PrescriptionStatus, LongAdder> prescriptions =
+            adders(Prescription.PrescriptionStatus.class);
+    private final Map<SupportTicket.TicketStatus, LongAdder> tickets = adders(SupportTicket.TicketStatus.class);
+    private final Map<User.UserRole, LongAdder> users = adders(User.UserRole.class);
+
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong corrections = new AtomicLong();
+    private volatile LocalDateTime lastReconciledAt;
+
+    public long getOrders(Order.OrderStatus status) {
+        return orders.get(status).sum();
+    }
+
+    public long getTotalOrders() {
+        return total(orders);
+    }
+
+    // Sum of delivered orders
+    public double getRevenue() {
+        return revenue.sum();
+    }
+
+    public long getPrescriptions(Prescription.PrescriptionStatus status) {
+        return prescriptions.get(status).sum();
+    }
+
+    public long getTotalPrescriptions() {
+        return total(prescriptions);
+    }
+
+    public long getTickets(SupportTicket.TicketStatus status) {
+        return tickets.get(status).sum();
+    }
+
+    public long getTotalTickets() {
+        return total(tickets);
+    }
+
+    public long getUsers(User.UserRole role) {
+        return users.get(role).sum();
+    }
+
+    public long getTotalUsers() {
+        return total(users);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        move(orders, event.getPreviousStatus(), event.getStatus());
+        double amount = event.getTotalAmount() != null ? event.getTotalAmount() : 0.0;
+        if (event.getPreviousStatus() == Order.OrderStatus.DELIVERED) {
+            revenue.add(-amount);
+        }
+        if (event.getStatus() == Order.OrderStatus.DELIVERED) {
+            revenue.add(amount);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrescriptionStatusChanged(PrescriptionStatusChangedEvent event) {
+        move(prescriptions, event.getPreviousStatus(), event.getStatus());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketStatusChanged(TicketStatusChangedEvent event) {
+        move(tickets, event.getPreviousStatus(), event.getStatus());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRoleChanged(UserRoleChangedEvent event) {
+        move(users, event.getPreviousRole(), event.getRole());
+    }
+
+    /**
+     * Bring every counter in line with the database. Each counter is read
+     * before its query and corrected by {@code database - reading}, so events
+     * applied while the query runs are kept rather than overwritten. A change
+     * that commits before the query but has its event applied after the
+     * reading is counted twice; the drift is bounded by the changes in flight
+     * during one query and is removed by the next pass.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${pharmacy.dashboard.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        Map<Order.OrderStatus, Long> orderReading = read(orders);
+        double revenueReading = revenue.sum();
+        Map<Order.OrderStatus, Long> orderCounts = new EnumMap<>(Order.OrderStatus.class);
+        double deliveredRevenue = 0.0;
+        for (Object[] row : orderRepository.countGroupedByStatus()) {
+            Order.OrderStatus status = Order.OrderStatus.valueOf(row[0].toString());
+            orderCounts.put(status, ((Number) row[1]).longValue());
+            if (status == Order.OrderStatus.DELIVERED && row[2] != null) {
+                deliveredRevenue = ((Number) row[2]).doubleValue();
+            }
+        }
+        correct(orders, orderReading, orderCounts);
+        double revenueDrift = deliveredRevenue - revenueReading;
+        if (Math.abs(revenueDrift) >= 0.005) {
+            revenue.add(revenueDrift);
+            corrections.incrementAndGet();
+        }
+
+        Map<Prescription.PrescriptionStatus, Long> prescriptionReading = read(prescriptions);
+        correct(prescriptions, prescriptionReading, grouped(prescriptionRepository.countGroupedByStatus(),
+                Prescription.PrescriptionStatus.class));
+        Map<SupportTicket.TicketStatus, Long> ticketReading = read(tickets);
+        correct(tickets, ticketReading,
+                grouped(supportTicketRepository.countGroupedByStatus(), SupportTicket.TicketStatus.class));
+        Map<User.UserRole, Long> userReading = read(users);
+        correct(users, userReading, grouped(userRepository.countGroupedByRole(), User.UserRole.class));
+
+        reconciliations.incrementAndGet();
+        lastReconciledAt = LocalDateTime.now();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("reconciliations", reconciliations.get());
+        stats.put("corrections", corrections.get());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        return stats;
+    }
+
+    private <K extends Enum<K>> void correct(Map<K, LongAdder> counters, Map<K, Long> reading, Map<K, Long> actual) {
+        for (Map.Entry<K, LongAdder> counter : counters.entrySet()) {
+            long drift = actual.getOrDefault(counter.getKey(), 0L) - reading.get(counter.getKey());
+            if (drift != 0) {
+                counter.getValue().add(drift);
+                corrections.incrementAndGet();
+            }
+        }
+    }
+
+    private static <K extends Enum<K>> Map<K, Long> read(Map<K, LongAdder> counters) {
+        Map<K, Long> reading = new HashMap<>();
+        counters.forEach((key, counter) -> reading.put(key, counter.sum()));
+        return reading;
+    }
+
+    private static <K extends Enum<K>> Map<K, Long> grouped(List<Object[]> rows, Class<K> type) {
+        Map<K, Long> counts = new EnumMap<>(type);
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put(type.cast(row[0]), ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    private static <K extends Enum<K>> void move(Map<K, LongAdder> counters, K from, K to) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            counters.get(from).decrement();
+        }
+        if (to != null) {
+            counters.get(to).increment();
+        }
+    }
+
+    private static <K extends Enum<K>> long total(Map<K, LongAdder> counters) {
+        long total = 0;
+        for (LongAdder counter : counters.values()) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    // Every key is present up front, so the maps are only ever read after construction
+    private static <K extends Enum<K>> Map<K, LongAdder> adders(Class<K> type) {
+        Map<K, LongAdder> adders = new EnumMap<>(type);
+        for (K key : type.getEnumConstants()) {
+            adders.put(key, new LongAdder());
+        }
+        return adders;
+    }
+}
@@ -30,6 +30,12 @@ public class DashboardService {
     private final OrderRepository orderRepository;
     private final PrescriptionRepository prescriptionRepository;
     private final SupportTicketRepository supportTicketRepository;
+    private final ProductCatalog productCatalog;
+    private final LowStockIndex lowStockIndex;
+    private final OptimisticRetry optimisticRetry;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderArchive orderArchive;
+    private final DashboardCounters dashboardCounters;
 
     @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats(String email) {
@@ -40,31 +46,32 @@ public class DashboardService {
 
         if ("ADMIN".equals(user.getRole().name())) {
             // Admin sees everything
-            stats.put("totalProducts", productRepository.count());
-            stats.put("pendingOrders", orderRepository.countByStatus(Order.OrderStatus.PENDING));
-            stats.put("pendingPrescriptions", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.PENDING));
-            stats.put("supportTickets", supportTicketRepository.countByStatus(SupportTicket.TicketStatus.OPEN));  // ← CHANGED
-            stats.put("totalUsers", userRepository.count());
-            stats.put("lowStock", productRepository.countByStockQuantityLessThan(10));
-            stats.put("totalOrders", orderRepository.count());
-            stats.put("totalRevenue", orderRepository.sumTotalAmount());
+            stats.put("totalProducts", productCount());
+            stats.put("pendingOrders", dashboardCounters.getOrders(Order.OrderStatus.PENDING));
+            stats.put("pendingPrescriptions", dashboardCounters.getPrescriptions(Prescription.PrescriptionStatus.PENDING));
+            stats.put("supportTickets", dashboardCounters.getTickets(SupportTicket.TicketStatus.OPEN));
+            stats.put("totalUsers", dashboardCounters.getTotalUsers());
+            stats.put("lowStock", lowStockCount());
+            stats.put("totalOrders", dashboardCounters.getTotalOrders());
+            stats.put("totalRevenue", dashboardCounters.getRevenue());
 
         } else if ("PHARMACIST".equals(user.getRole().name())) {
             // Pharmacist sees operational data
-            stats.put("pendingPrescriptions", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.PENDING));
-            stats.put("pendingOrders", orderRepository.countByStatus(Order.OrderStatus.PENDING));
-            stats.put("supportTickets", supportTicketRepository.countByStatus(SupportTicket.TicketStatus.OPEN));  // ← CHANGED
-            stats.put("lowStock", productRepository.countByStockQuantityLessThan(10));
-            stats.put("totalProducts", productRepository.count());
-            stats.put("processingOrders", orderRepository.countByStatus(Order.OrderStatus.PROCESSING));
+            stats.put("pendingPrescriptions", dashboardCounters.getPrescriptions(Prescription.PrescriptionStatus.PENDING));
+            stats.put("pendingOrders", dashboardCounters.getOrders(Order.OrderStatus.PENDING));
+            stats.put("supportTickets", dashboardCounters.getTickets(SupportTicket.TicketStatus.OPEN));
+            stats.put("lowStock", lowStockCount());
+            stats.put("totalProducts", productCount());
+            stats.put("processingOrders", dashboardCounters.getOrders(Order.OrderStatus.PROCESSING));
 
         } else {
-            // Customer sees their own data
-            stats.put("myOrders", orderRepository.countByUserId(user.getId()));
+            // Customer sees their own data, which is not kept in the shared counters
+            stats.put("myOrders", orderRepository.countByUserId(user.getId())
+                    + archivedOrderRepository.countByUserId(user.getId()));
             stats.put("pendingOrders", orderRepository.countByUserIdAndStatus(user.getId(), Order.OrderStatus.PENDING));
             stats.put("myPrescriptions", prescriptionRepository.countByUserId(user.getId()));
             stats.put("pendingPrescriptions", prescriptionRepository.countByUserIdAndStatus(user.getId(), Prescription.PrescriptionStatus.PENDING));
-            stats.put("totalProducts", productRepository.count());
+            stats.put("totalProducts", productCount());
             stats.put("myTickets", supportTicketRepository.countByUserId(user.getId()));
         }
 
@@ -75,46 +82,64 @@ public class DashboardService {
     public Map<String, Object> getAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
 
-        // Sales Analytics
+        // Sales Analytics, counted over live and archived orders
         Map<String, Object> salesData = new HashMap<>();
-        salesData.put("totalRevenue", orderRepository.sumTotalAmount());
-        salesData.put("totalOrders", orderRepository.count());
-        salesData.put("averageOrderValue", orderRepository.averageOrderAmount());
-        salesData.put("pendingOrders", orderRepository.countByStatus(Order.OrderStatus.PENDING));
-        salesData.put("completedOrders", orderRepository.countByStatus(Order.OrderStatus.DELIVERED));
+        double revenue = dashboardCounters.getRevenue();
+        long completed = dashboardCounters.getOrders(Order.OrderStatus.DELIVERED);
+        salesData.put("totalRevenue", revenue);
+        salesData.put("totalOrders", dashboardCounters.getTotalOrders());
+        salesData.put("averageOrderValue", completed > 0 ? revenue / completed : 0.0);
+        salesData.put("pendingOrders", dashboardCounters.getOrders(Order.OrderStatus.PENDING));
+        salesData.put("completedOrders", completed);
         analytics.put("sales", salesData);
+        analytics.put("archive", orderArchive.getStats());
 
         // Inventory Analytics
         Map<String, Object> inventoryData = new HashMap<>();
-        inventoryData.put("totalProducts", productRepository.count());
-        inventoryData.put("lowStockProducts", productRepository.countByStockQuantityLessThan(10));
-        inventoryData.put("outOfStock", productRepository.countByStockQuantity(0));
+        inventoryData.put("totalProducts", productCount());
+        inventoryData.put("lowStockProducts", lowStockIndex.getLowStockCount());
+        inventoryData.put("outOfStock", lowStockIndex.getOutOfStockCount());
         inventoryData.put("totalValue", productRepository.sumInventoryValue());
         analytics.put("inventory", inventoryData);
 
         // User Analytics
         Map<String, Object> userData = new HashMap<>();
-        userData.put("totalUsers", userRepository.count());
-        userData.put("admins", userRepository.countByRole(User.UserRole.ADMIN));
-        userData.put("pharmacists", userRepository.countByRole(User.UserRole.PHARMACIST));
-        userData.put("customers", userRepository.countByRole(User.UserRole.CUSTOMER));
+        userData.put("totalUsers", dashboardCounters.getTotalUsers());
+        userData.put("admins", dashboardCounters.getUsers(User.UserRole.ADMIN));
+        userData.put("pharmacists", dashboardCounters.getUsers(User.UserRole.PHARMACIST));
+        userData.put("customers", dashboardCounters.getUsers(User.UserRole.CUSTOMER));
         analytics.put("users", userData);
 
         // Prescription Analytics
         Map<String, Object> prescriptionData = new HashMap<>();
-        prescriptionData.put("totalPrescriptions", prescriptionRepository.count());
-        prescriptionData.put("pending", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.PENDING));
-        prescriptionData.put("approved", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.APPROVED));
-        prescriptionData.put("rejected", prescriptionRepository.countByStatus(Prescription.PrescriptionStatus.REJECTED));
+        prescriptionData.put("totalPrescriptions", dashboardCounters.getTotalPrescriptions());
+        prescriptionData.put("pending", dashboardCounters.getPrescriptions(Prescription.PrescriptionStatus.PENDING));
+        prescriptionData.put("approved", dashboardCounters.getPrescriptions(Prescription.PrescriptionStatus.APPROVED));
+        prescriptionData.put("rejected", dashboardCounters.getPrescriptions(Prescription.PrescriptionStatus.REJECTED));
         analytics.put("prescriptions", prescriptionData);
 
         // Support Analytics
         Map<String, Object> supportData = new HashMap<>();
-        supportData.put("totalTickets", supportTicketRepository.count());
-        supportData.put("openTickets", supportTicketRepository.countByStatus(SupportTicket.TicketStatus.OPEN));  // ← CHANGED
-        supportData.put("resolvedTickets", supportTicketRepository.countByStatus(SupportTicket.TicketStatus.RESOLVED));  // ← CHANGED
+        supportData.put("totalTickets", dashboardCounters.getTotalTickets());
+        supportData.put("openTickets", dashboardCounters.getTickets(SupportTicket.TicketStatus.OPEN));
+        supportData.put("resolvedTickets", dashboardCounters.getTickets(SupportTicket.TicketStatus.RESOLVED));
         analytics.put("support", supportData);
+        analytics.put("counters", dashboardCounters.getStats());
 
         return analytics;
     }
+
+    public Map<String, Object> getWriteConflictStats() {
+        return optimisticRetry.getStats();
+    }
+
+    // Served from the catalog snapshot, which also brings the low-stock index up to date
+    private int productCount() {
+        return productCatalog.size();
+    }
+
+    private int lowStockCount() {
+        productCatalog.ensureCurrent();
+        return lowStockIndex.getLowStockCount();
+    }
 }
\ No newline at end of file
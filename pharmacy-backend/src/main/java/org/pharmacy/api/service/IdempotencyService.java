@@ -0,0 +1,232 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.pharmacy.api.dto.ApiResponse;
+import org.pharmacy.api.model.IdempotencyRecord;
+import org.pharmacy.api.repository.IdempotencyRecordRepository;
+import org.pharmacy.api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes a POST safe to retry. The first request carrying an
+ * {@code Idempotency-Key} claims it by inserting a row under a unique
+ * constraint, runs, and stores its response; replays get that response back
+ * without running again. A second request arriving while the first is
+ * still running loses the insert and is told to retry later. The response
+ * is stored in the action's own transaction, so the claim turns COMPLETED
+ * exactly when the action's writes commit. A claim left IN_PROGRESS has
+ * nothing committed behind it (the action failed or the process died), so
+ * once it is older than the claim timeout a retry of the same request takes
+ * it over, and an expired record is taken over by any request. A takeover
+ * bumps the record's version, so if the first run was only slow, its
+ * completion fails the optimistic check and its action rolls back.
+ * Completed responses are also kept in a bounded in-memory LRU so most
+ * replays never reach the database.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final Map<String, StoredResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              UserRepository userRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pharmacy.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${pharmacy.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${pharmacy.idempotency.claim-timeout-seconds:300}") long claimTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.claimTimeout = Duration.ofSeconds(claimTimeoutSeconds);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run {@code action} once per {@code key}; without a key it simply runs.
+     *
+     * @param scope   the endpoint, so one key can be used on different endpoints
+     * @param caller  the authenticated user's name, so keys are per caller whatever the body says
+     * @param request the request body, fingerprinted to reject key reuse
+     */
+    public ResponseEntity<?> execute(String scope, String caller, String key, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Long callerId = userRepository.findIdByEmail(caller)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        String recordKey = scope + ":" + callerId + ":" + key;
+        String requestHash = fingerprint(request);
+
+        StoredResponse cached = cache.get(recordKey);
+        if (cached != null && cached.expiresAt.isAfter(LocalDateTime.now())) {
+            return replay(cached, requestHash);
+        }
+
+        IdempotencyRecord record = claim(recordKey, requestHash);
+        if (record == null) {
+            return existing(recordKey, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            // The action joins this transaction, so its writes and the stored response commit together
+            response = transactionTemplate.execute(status -> {
+                ResponseEntity<?> result = action.get();
+                if (result.getStatusCode().is2xxSuccessful()) {
+                    record.setStatus(IdempotencyRecord.Status.COMPLETED);
+                    record.setResponseStatus(result.getStatusCode().value());
+                    record.setResponseBody(serialize(result.getBody()));
+                    idempotencyRecordRepository.save(record);
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            // The action rolled back, so the key is free to be retried
+            idempotencyRecordRepository.release(recordKey, record.getVersion());
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            idempotencyRecordRepository.release(recordKey, record.getVersion());
+            return response;
+        }
+
+        cache.put(recordKey, new StoredResponse(requestHash, record.getResponseStatus(),
+                record.getResponseBody(), record.getExpiresAt()));
+        return response;
+    }
+
+    /**
+     * Insert the claim for {@code recordKey}, or take over an expired record
+     * or an abandoned claim. Returns null when someone else holds the key.
+     */
+    private IdempotencyRecord claim(String recordKey, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setRecordKey(recordKey);
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        try {
+            return idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            // The conditional update lets exactly one of several racing retries win
+            if (idempotencyRecordRepository.reclaim(recordKey, requestHash, now, now.plus(ttl),
+                    now.minus(claimTimeout)) == 0) {
+                return null;
+            }
+            return idempotencyRecordRepository.findByRecordKey(recordKey).orElse(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pharmacy.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.deleteExpired(now);
+        synchronized (cache) {
+            cache.values().removeIf(stored -> !stored.expiresAt.isAfter(now));
+        }
+    }
+
+    private ResponseEntity<?> existing(String recordKey, String requestHash) {
+        IdempotencyRecord existing = idempotencyRecordRepository.findByRecordKey(recordKey).orElse(null);
+        if (existing == null || existing.getStatus() == IdempotencyRecord.Status.IN_PROGRESS
+                || !existing.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("A request with this Idempotency-Key is still being processed"));
+        }
+        StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                existing.getResponseBody(), existing.getExpiresAt());
+        cache.put(recordKey, stored);
+        return replay(stored, requestHash);
+    }
+
+    private static ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new RuntimeException("Idempotency-Key has already been used for a different request");
+        }
+        return ResponseEntity.status(stored.status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.body);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint request", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not store response", e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int status;
+        private final String body;
+        private final LocalDateTime expiresAt;
+
+        private StoredResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.event.LowStockEvent;
+import org.pharmacy.api.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Products at or below their reorder level, maintained from catalog
+ * changes so every stock mutation (orders, cancellations, manual updates)
+ * keeps it current. Crossing the reorder level publishes a
+ * {@link LowStockEvent} and appends it to a short in-memory alert stream.
+ */
+@Component
+@RequiredArgsConstructor
+public class LowStockIndex implements ProductCatalog.Listener {
+
+    private static final int MAX_ALERTS = 200;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Product> lowStock = new ConcurrentHashMap<>();
+    private final Set<Long> outOfStock = ConcurrentHashMap.newKeySet();
+    private final Deque<LowStockEvent> alerts = new ConcurrentLinkedDeque<>();
+    private final AtomicLong alertSequence = new AtomicLong();
+
+    @Override
+    public void onRebuild(Collection<Product> products) {
+        lowStock.clear();
+        outOfStock.clear();
+        for (Product product : products) {
+            track(product);
+        }
+    }
+
+    @Override
+    public void onChange(Product previous, Product current) {
+        if (previous != null) {
+            lowStock.remove(previous.getId());
+            outOfStock.remove(previous.getId());
+        }
+        if (current == null) {
+            return;
+        }
+        track(current);
+        if (isLow(current) && (previous == null || !isLow(previous))) {
+            publish(current);
+        }
+    }
+
+    public int getLowStockCount() {
+        return lowStock.size();
+    }
+
+    public int getOutOfStockCount() {
+        return outOfStock.size();
+    }
+
+    public List<Product> getLowStockProducts() {
+        List<Product> products = new ArrayList<>(lowStock.values());
+        products.sort(Comparator.comparing(Product::getId));
+        return products;
+    }
+
+    /**
+     * Alerts with a sequence number greater than {@code after}, oldest first.
+     */
+    public List<LowStockEvent> getAlerts(long after) {
+        List<LowStockEvent> result = new ArrayList<>();
+        for (LowStockEvent alert : alerts) {
+            if (alert.getSequence() > after) {
+                result.add(alert);
+            }
+        }
+        return result;
+    }
+
+    private void track(Product product) {
+        if (isLow(product)) {
+            lowStock.put(product.getId(), product);
+        }
+        if (stockOf(product) <= 0) {
+            outOfStock.add(product.getId());
+        }
+    }
+
+    private void publish(Product product) {
+        LowStockEvent event = new LowStockEvent(
+                alertSequence.incrementAndGet(),
+                product.getId(),
+                product.getName(),
+                product.getStockQuantity(),
+                product.getReorderLevel(),
+                LocalDateTime.now());
+        alerts.addLast(event);
+        while (alerts.size() > MAX_ALERTS) {
+            alerts.pollFirst();
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    private static boolean isLow(Product product) {
+        int reorderLevel = product.getReorderLevel() != null ? product.getReorderLevel() : 0;
+        return stockOf(product) <= reorderLevel;
+    }
+
+    private static int stockOf(Product product) {
+        return product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+    }
+}
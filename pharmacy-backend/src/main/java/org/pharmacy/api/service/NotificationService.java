@@ -6,15 +6,18 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.model.Notification;
 import org.pharmacy.api.model.User;
 import org.pharmacy.api.repository.NotificationRepository;
 import org.pharmacy.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
@@ -39,6 +42,20 @@ public class NotificationService {
         return notification;
     }
 
+    /**
+     * Save many notifications in JDBC batches, e.g. one per order of a bulk
+     * status change.
+     */
+    @Transactional
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            notification.setRead(false);
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        log.debug("Sending {} notifications", saved.size());
+        return saved;
+    }
+
     private void mockSendNotification(Notification notification) {
         // Mock implementation - would integrate with FCM, SendGrid, Twilio, etc.
         System.out.println("📧 Sending notification to " + notification.getUser().getEmail());
@@ -52,6 +69,16 @@ public class NotificationService {
         return notificationRepository.findByUser(user);
     }
 
+    public CursorPage<Notification> getUserNotificationPage(Long userId, Long cursor, Integer size) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        int pageSize = CursorPage.pageSize(size);
+        List<Notification> notifications = notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(
+                userId, CursorPage.after(cursor), CursorPage.limit(pageSize));
+        return CursorPage.of(notifications, pageSize, Notification::getId);
+    }
+
     public List<Notification> getUnreadNotifications(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -60,7 +87,7 @@ public class NotificationService {
 
     @Transactional
     public Notification markAsRead(Long notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
+        Notification notification = notificationRepository.findWithUserById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
         notification.setRead(true);  // ← Changed from setIsRead to setRead
         return notificationRepository.save(notification);
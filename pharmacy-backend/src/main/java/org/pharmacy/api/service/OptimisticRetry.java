@@ -0,0 +1,112 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.exception.ConcurrentUpdateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write in its own transaction and, when the commit
+ * loses a {@code @Version} check to a concurrent writer, runs it again on
+ * fresh data after a jittered exponential backoff. Each attempt is a new
+ * transaction, so callers must not already be inside one; when they are,
+ * the action runs once in the caller's transaction.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    private final Map<String, Counters> metrics = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${pharmacy.retry.max-attempts:4}") int maxAttempts,
+                           @Value("${pharmacy.retry.initial-backoff-ms:10}") long initialBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        Counters counters = metrics.computeIfAbsent(operation, key -> new Counters());
+        counters.calls.increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                counters.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    counters.exhausted.increment();
+                    throw new ConcurrentUpdateException(
+                            "The record was changed by another request, please try again", e);
+                }
+                counters.retries.increment();
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff *= 2;
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls, version conflicts, retries and exhausted calls per operation.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        metrics.forEach((operation, counters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("calls", counters.calls.sum());
+            values.put("conflicts", counters.conflicts.sum());
+            values.put("retries", counters.retries.sum());
+            values.put("exhausted", counters.exhausted.sum());
+            stats.put(operation, values);
+        });
+        return stats;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying", e);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.pharmacy.api.dto.OrderSummary;
+import org.pharmacy.api.model.ArchivedOrder;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.OrderItem;
+import org.pharmacy.api.model.Payment;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.ArchivedOrderRepository;
+import org.pharmacy.api.repository.OrderItemRepository;
+import org.pharmacy.api.repository.OrderRepository;
+import org.pharmacy.api.repository.PaymentRepository;
+import org.pharmacy.api.repository.PrescriptionRepository;
+import org.pharmacy.api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for finished orders. A scheduled job moves delivered and
+ * cancelled orders not touched for a configurable age, with their items
+ * and payments, out of the hot tables into {@link ArchivedOrder} rows, so
+ * the queries that run on every request only see live orders. Reads that
+ * miss the hot tables fall back to the archive, and exports and reports
+ * over all orders stream it alongside the hot tables.
+ */
+@Component
+public class OrderArchive {
+
+    private static final Set<Order.OrderStatus> FINISHED =
+            EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final PaymentRepository paymentRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final UserRepository userRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final ProductCatalog productCatalog;
+    private final OptimisticRetry optimisticRetry;
+    private final ObjectMapper objectMapper;
+    private final Duration age;
+    private final int batchSize;
+
+    private final AtomicLong archived = new AtomicLong();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    public OrderArchive(OrderRepository orderRepository,
+                        OrderItemRepository orderItemRepository,
+                        PaymentRepository paymentRepository,
+                        ArchivedOrderRepository archivedOrderRepository,
+                        UserRepository userRepository,
+                        PrescriptionRepository prescriptionRepository,
+                        ProductCatalog productCatalog,
+                        OptimisticRetry optimisticRetry,
+                        ObjectMapper objectMapper,
+                        @Value("${pharmacy.orders.archive.after-days:180}") long afterDays,
+                        @Value("${pharmacy.orders.archive.batch-size:500}") int batchSize) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.userRepository = userRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.productCatalog = productCatalog;
+        this.optimisticRetry = optimisticRetry;
+        this.objectMapper = objectMapper;
+        this.age = Duration.ofDays(afterDays);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Move everything that is due, one batch per transaction. An age of
+     * zero or less turns archiving off.
+     */
+    @Scheduled(fixedDelayString = "${pharmacy.orders.archive.interval-ms:3600000}")
+    public void archiveFinishedOrders() {
+        if (age.isZero() || age.isNegative()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(age);
+        int moved;
+        do {
+            moved = optimisticRetry.execute("order.archive", () -> archiveBatch(cutoff));
+        } while (moved == batchSize);
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findArchivableIds(FINISHED, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<PaymentRow>> payments = new HashMap<>();
+        for (Payment payment : paymentRepository.findByOrderIdIn(ids)) {
+            payments.computeIfAbsent(payment.getOrder().getId(), id -> new ArrayList<>()).add(toRow(payment));
+        }
+
+        List<ArchivedOrder> rows = new ArrayList<>(ids.size());
+        for (Order order : orderRepository.findByIdIn(ids)) {
+            List<ItemRow> items = new ArrayList<>(order.getItems().size());
+            for (OrderItem item : order.getItems()) {
+                items.add(new ItemRow(item.getId(), item.getProduct().getId(), item.getProduct().getName(),
+                        item.getQuantity(), item.getPrice(), item.getSubtotal()));
+            }
+            ArchivedOrder row = new ArchivedOrder();
+            row.setOrderId(order.getId());
+            row.setUserId(order.getUser().getId());
+            row.setStatus(order.getStatus());
+            row.setTotalAmount(order.getTotalAmount());
+            row.setItemCount(items.size());
+            row.setShippingAddress(order.getShippingAddress());
+            row.setPaymentMethod(order.getPaymentMethod());
+            row.setPrescriptionId(order.getPrescription() != null ? order.getPrescription().getId() : null);
+            row.setCreatedAt(order.getCreatedAt());
+            row.setUpdatedAt(order.getUpdatedAt());
+            row.setDetail(pack(new Detail(items, payments.getOrDefault(order.getId(), List.of()))));
+            rows.add(row);
+        }
+        archivedOrderRepository.saveAll(rows);
+
+        paymentRepository.deleteByOrderIds(ids);
+        orderItemRepository.deleteByOrderIds(ids);
+        if (orderRepository.deleteArchived(ids, FINISHED, cutoff) != ids.size()) {
+            // One of the orders was changed after it was read; roll back and pick the batch again
+            throw new OptimisticLockingFailureException("Orders changed while being archived");
+        }
+        archived.addAndGet(ids.size());
+        return ids.size();
+    }
+
+    /**
+     * The archived order rebuilt as a detached {@link Order}, for read-only use.
+     */
+    public Optional<Order> findOrder(Long orderId) {
+        return archivedOrderRepository.findByOrderId(orderId).map(row -> {
+            fallbackReads.incrementAndGet();
+            return toOrder(row, unpack(row.getDetail()));
+        });
+    }
+
+    public boolean contains(Long orderId) {
+        return archivedOrderRepository.findByOrderId(orderId).isPresent();
+    }
+
+    public List<OrderSummary> findUserSummaries(Long userId) {
+        return archivedOrderRepository.findSummariesByUserId(userId);
+    }
+
+    // Whether any archived order was placed in [from, to)
+    public boolean hasOrdersPlaced(LocalDateTime from, LocalDateTime to) {
+        return archivedOrderRepository.existsByCreatedAtGreaterThanEqualAndCreatedAtLessThan(from, to);
+    }
+
+    /**
+     * Summaries of the archived orders matching the filters, by order id.
+     * Null filters match everything. The stream holds a cursor, so read it
+     * inside a transaction and close it.
+     */
+    public Stream<OrderSummary> streamSummaries(Order.OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        return archivedOrderRepository.streamSummaries(status, from, to);
+    }
+
+    /**
+     * The archived orders matching the filters, by order id, each with its
+     * lines unpacked as it is read. Same rules as {@link #streamSummaries}.
+     */
+    public Stream<Lines> streamLines(Order.OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        return archivedOrderRepository.streamDetails(status, from, to)
+                .map(row -> new Lines((Long) row[0], (Order.OrderStatus) row[1], (LocalDateTime) row[2],
+                        unpack((byte[]) row[3]).getItems()));
+    }
+
+    /**
+     * Payments of the user's archived orders, each attached to its rebuilt order.
+     */
+    public List<Payment> findUserPayments(Long userId) {
+        List<Payment> payments = new ArrayList<>();
+        for (ArchivedOrder row : archivedOrderRepository.findByUserIdOrderByOrderId(userId)) {
+            Detail detail = unpack(row.getDetail());
+            if (detail.getPayments().isEmpty()) {
+                continue;
+            }
+            Order order = toOrder(row, detail);
+            for (PaymentRow paymentRow : detail.getPayments()) {
+                payments.add(toPayment(paymentRow, order));
+            }
+        }
+        return payments;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("archivedOrders", archivedOrderRepository.count());
+        stats.put("archivedSinceStart", archived.get());
+        stats.put("fallbackReads", fallbackReads.get());
+        stats.put("afterDays", age.toDays());
+        return stats;
+    }
+
+    private Order toOrder(ArchivedOrder row, Detail detail) {
+        Order order = new Order();
+        order.setId(row.getOrderId());
+        order.setUser(userRepository.findById(row.getUserId()).orElse(null));
+        order.setStatus(row.getStatus());
+        order.setTotalAmount(row.getTotalAmount());
+        order.setShippingAddress(row.getShippingAddress());
+        order.setPaymentMethod(row.getPaymentMethod());
+        if (row.getPrescriptionId() != null) {
+            order.setPrescription(prescriptionRepository.findById(row.getPrescriptionId()).orElse(null));
+        }
+        order.setCreatedAt(row.getCreatedAt());
+        order.setUpdatedAt(row.getUpdatedAt());
+        for (ItemRow itemRow : detail.getItems()) {
+            OrderItem item = new OrderItem();
+            item.setId(itemRow.getId());
+            item.setOrder(order);
+            item.setProduct(productCatalog.findById(itemRow.getProductId()).orElseGet(() -> {
+                // Deleted since; keep what the order knew about it
+                Product product = new Product();
+                product.setId(itemRow.getProductId());
+                product.setName(itemRow.getProductName());
+                return product;
+            }));
+            item.setQuantity(itemRow.getQuantity());
+            item.setPrice(itemRow.getPrice());
+            item.setSubtotal(itemRow.getSubtotal());
+            order.getItems().add(item);
+        }
+        return order;
+    }
+
+    private static PaymentRow toRow(Payment payment) {
+        return new PaymentRow(payment.getId(), payment.getUser().getId(), payment.getAmount(),
+                payment.getPaymentMethod(), payment.getStatus(), payment.getTransactionId(),
+                payment.getCardLastFourDigits(), payment.getCreatedAt(), payment.getUpdatedAt());
+    }
+
+    private Payment toPayment(PaymentRow row, Order order) {
+        Payment payment = new Payment();
+        payment.setId(row.getId());
+        payment.setOrder(order);
+        User user = order.getUser() != null && order.getUser().getId().equals(row.getUserId())
+                ? order.getUser()
+                : userRepository.findById(row.getUserId()).orElse(null);
+        payment.setUser(user);
+        payment.setAmount(row.getAmount());
+        payment.setPaymentMethod(row.getPaymentMethod());
+        payment.setStatus(row.getStatus());
+        payment.setTransactionId(row.getTransactionId());
+        payment.setCardLastFourDigits(row.getCardLastFourDigits());
+        payment.setCreatedAt(row.getCreatedAt());
+        payment.setUpdatedAt(row.getUpdatedAt());
+        return payment;
+    }
+
+    private byte[] pack(Detail detail) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            // writeValue closes the stream, which finishes the gzip trailer
+            objectMapper.writeValue(new GZIPOutputStream(bytes), detail);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Detail unpack(byte[] packed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(packed))) {
+            return objectMapper.readValue(in, Detail.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Detail {
+        private List<ItemRow> items = new ArrayList<>();
+        private List<PaymentRow> payments = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ItemRow {
+        private Long id;
+        private Long productId;
+        private String productName;
+        private Integer quantity;
+        private Double price;
+        private Double subtotal;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Lines {
+        private Long orderId;
+        private Order.OrderStatus status;
+        private LocalDateTime createdAt;
+        private List<ItemRow> items;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class PaymentRow {
+        private Long id;
+        private Long userId;
+        private Double amount;
+        private String paymentMethod;
+        private Payment.PaymentStatus status;
+        private String transactionId;
+        private String cardLastFourDigits;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.pharmacy.api.dto.OrderItemSummary;
+import org.pharmacy.api.dto.OrderSummary;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.repository.OrderItemRepository;
+import org.pharmacy.api.repository.OrderRepository;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams orders or order lines to the client as NDJSON or CSV. Rows come
+ * from forward-only database cursors over the live and the archived orders
+ * as unmanaged projections, merged by order id, and are written as they are
+ * read, so memory stays flat however many orders match.
+ */
+@Service
+public class OrderExportService {
+
+    private static final String ORDER_HEADER = "id,userId,userName,userEmail,status,totalAmount,itemCount,"
+            + "paymentMethod,shippingAddress,prescriptionId,createdAt,updatedAt";
+    private static final String ITEM_HEADER = "orderId,orderStatus,orderCreatedAt,itemId,productId,productName,"
+            + "quantity,price,subtotal";
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              OrderArchive orderArchive,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Validate the request and return the body that writes it. Nothing is
+     * read until the body runs, so bad parameters still get a normal error
+     * response.
+     *
+     * @param dataset "orders" or "items"
+     * @param from    first order date to include, or null
+     * @param to      last order date to include, or null
+     */
+    public StreamingResponseBody export(String dataset, Format format, String status, LocalDate from, LocalDate to) {
+        Order.OrderStatus orderStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid order status: " + status);
+            }
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        Order.OrderStatus statusFilter = orderStatus;
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+
+        if ("orders".equalsIgnoreCase(dataset)) {
+            return out -> write(out, format, ORDER_HEADER,
+                    () -> mergeByOrderId(orderArchive.streamSummaries(statusFilter, start, end),
+                            orderRepository.streamSummaries(statusFilter, start, end), OrderSummary::getId),
+                    OrderExportService::orderColumns);
+        }
+        if ("items".equalsIgnoreCase(dataset)) {
+            return out -> write(out, format, ITEM_HEADER,
+                    () -> mergeByOrderId(archivedItems(statusFilter, start, end),
+                            orderItemRepository.streamSummaries(statusFilter, start, end), OrderItemSummary::getOrderId),
+                    OrderExportService::itemColumns);
+        }
+        throw new RuntimeException("Invalid export dataset: " + dataset);
+    }
+
+    private Stream<OrderItemSummary> archivedItems(Order.OrderStatus status, LocalDateTime from, LocalDateTime to) {
+        return orderArchive.streamLines(status, from, to).flatMap(order -> order.getItems().stream()
+                .map(item -> new OrderItemSummary(order.getOrderId(), order.getStatus(), order.getCreatedAt(),
+                        item.getId(), item.getProductId(), item.getProductName(), item.getQuantity(),
+                        item.getPrice(), item.getSubtotal())));
+    }
+
+    /**
+     * Interleave two streams that are each ordered by order id into one,
+     * keeping each order's rows together. Closing the result closes both.
+     */
+    private static <T> Stream<T> mergeByOrderId(Stream<T> first, Stream<T> second, ToLongFunction<T> orderId) {
+        Iterator<T> left = first.iterator();
+        Iterator<T> right = second.iterator();
+        Iterator<T> merged = new Iterator<>() {
+            private T nextLeft;
+            private T nextRight;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null || left.hasNext() || right.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (nextLeft == null && left.hasNext()) {
+                    nextLeft = left.next();
+                }
+                if (nextRight == null && right.hasNext()) {
+                    nextRight = right.next();
+                }
+                T next;
+                if (nextRight == null
+                        || (nextLeft != null && orderId.applyAsLong(nextLeft) <= orderId.applyAsLong(nextRight))) {
+                    next = nextLeft;
+                    nextLeft = null;
+                } else {
+                    next = nextRight;
+                    nextRight = null;
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                return next;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(first::close)
+                .onClose(second::close);
+    }
+
+    private <T> void write(OutputStream out, Format format, String header,
+                           Supplier<Stream<T>> rows, Function<T, List<Object>> columns) {
+        // The cursor is only open inside a transaction, which here spans the whole download
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                if (format == Format.CSV) {
+                    writer.write(header);
+                    writer.write('\n');
+                }
+                Iterator<T> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    T row = iterator.next();
+                    if (format == Format.CSV) {
+                        writeCsvRow(writer, columns.apply(row));
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeCsvRow(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static List<Object> orderColumns(OrderSummary order) {
+        return Arrays.asList(order.getId(), order.getUserId(), order.getUserName(), order.getUserEmail(),
+                order.getStatus(), order.getTotalAmount(), order.getItemCount(), order.getPaymentMethod(),
+                order.getShippingAddress(), order.getPrescriptionId(), order.getCreatedAt(), order.getUpdatedAt());
+    }
+
+    private static List<Object> itemColumns(OrderItemSummary item) {
+        return Arrays.asList(item.getOrderId(), item.getOrderStatus(), item.getOrderCreatedAt(), item.getItemId(),
+                item.getProductId(), item.getProductName(), item.getQuantity(), item.getPrice(), item.getSubtotal());
+    }
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String format) {
+            for (Format value : values()) {
+                if (value.extension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new RuntimeException("Invalid export format: " + format);
+        }
+    }
+}
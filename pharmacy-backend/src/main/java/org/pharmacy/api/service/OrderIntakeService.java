@@ -0,0 +1,333 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.pharmacy.api.dto.OrderIntake;
+import org.pharmacy.api.dto.OrderItemRequest;
+import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional asynchronous order intake. Submissions get a cheap in-memory
+ * check (user, products, available stock) and go into a bounded queue; a
+ * small worker pool drains it in micro-batches and creates each batch's
+ * orders in one transaction. If any of them fails the batch rolls back
+ * (stock reservations included) and its orders are created again one per
+ * transaction, so one bad basket never fails the others. Results
+ * are kept for polling or a one-shot server-sent event. The queue lives in
+ * memory: intakes still queued when the process dies are lost, so clients
+ * should resubmit (with the same Idempotency-Key) if polling finds nothing.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final long SUBSCRIBE_TIMEOUT_MS = 60_000;
+
+    private final OrderService orderService;
+    private final UserRepository userRepository;
+    private final ProductCatalog productCatalog;
+    private final StockLedger stockLedger;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<Submission> queue;
+    private final int workers;
+    private final int batchSize;
+    private final Duration retention;
+    private final ExecutorService executor;
+    private volatile boolean running;
+
+    private final Map<String, OrderIntake> intakes = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<OrderIntake>> completions = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAdder batchFallbacks = new LongAdder();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private final LongAdder totalLatencyMillis = new LongAdder();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    public OrderIntakeService(OrderService orderService,
+                              UserRepository userRepository,
+                              ProductCatalog productCatalog,
+                              StockLedger stockLedger,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pharmacy.orders.intake.capacity:1000}") int capacity,
+                              @Value("${pharmacy.orders.intake.workers:2}") int workers,
+                              @Value("${pharmacy.orders.intake.batch-size:20}") int batchSize,
+                              @Value("${pharmacy.orders.intake.retention-minutes:60}") long retentionMinutes) {
+        this.orderService = orderService;
+        this.userRepository = userRepository;
+        this.productCatalog = productCatalog;
+        this.stockLedger = stockLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "order-intake-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Workers finish what is already queued before exiting
+        running = false;
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Check the request against in-memory state and queue it. Empty when
+     * the queue is full.
+     */
+    public Optional<OrderIntake> submit(OrderRequest request) {
+        if (!userRepository.existsById(request.getUserId())) {
+            throw new RuntimeException("User not found");
+        }
+        for (OrderItemRequest item : request.getItems()) {
+            Product product = productCatalog.findById(item.getProductId())
+                    .orElseThrow(() -> new RuntimeException("Product not found: " + item.getProductId()));
+            if (stockLedger.getAvailable(product.getId()) < item.getQuantity()) {
+                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            }
+        }
+
+        OrderIntake intake = new OrderIntake(UUID.randomUUID().toString(), request.getUserId(),
+                OrderIntake.Status.QUEUED, null, null, LocalDateTime.now(), null);
+        intakes.put(intake.getId(), intake);
+        completions.put(intake.getId(), new CompletableFuture<>());
+        if (!queue.offer(new Submission(intake.getId(), request, System.nanoTime()))) {
+            intakes.remove(intake.getId());
+            completions.remove(intake.getId());
+            rejected.increment();
+            return Optional.empty();
+        }
+        submitted.increment();
+        return Optional.of(intake);
+    }
+
+    /**
+     * The intake, for the user it was submitted for or for staff. Anyone
+     * else is told it does not exist, so intake ids cannot be probed.
+     *
+     * @param caller the authenticated user's name
+     */
+    public OrderIntake getIntake(String id, String caller) {
+        OrderIntake intake = intakes.get(id);
+        if (intake == null || !canSee(intake, caller)) {
+            throw new RuntimeException("Order intake not found");
+        }
+        return intake;
+    }
+
+    /**
+     * Server-sent event stream that delivers the intake once it is finished,
+     * with the same access rule as {@link #getIntake}.
+     */
+    public SseEmitter subscribe(String id, String caller) {
+        getIntake(id, caller);
+        CompletableFuture<OrderIntake> completion = completions.get(id);
+        if (completion == null) {
+            throw new RuntimeException("Order intake not found");
+        }
+        SseEmitter emitter = new SseEmitter(SUBSCRIBE_TIMEOUT_MS);
+        completion.whenComplete((intake, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("order-intake").data(intake));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private boolean canSee(OrderIntake intake, String caller) {
+        User user = userRepository.findByEmail(caller)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return user.getId().equals(intake.getUserId()) || user.getRole() != User.UserRole.CUSTOMER;
+    }
+
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        long finished = completed.sum() + failed.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("workers", workers);
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batchCount);
+        stats.put("averageBatchSize", batchCount > 0 ? (double) batchedOrders.sum() / batchCount : 0.0);
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("batchFallbacks", batchFallbacks.sum());
+        stats.put("averageLatencyMs", finished > 0 ? (double) totalLatencyMillis.sum() / finished : 0.0);
+        stats.put("maxLatencyMs", maxLatencyMillis.get());
+        return stats;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        intakes.values().removeIf(intake -> {
+            boolean expired = intake.getCompletedAt() != null && intake.getCompletedAt().isBefore(cutoff);
+            if (expired) {
+                completions.remove(intake.getId());
+            }
+            return expired;
+        });
+    }
+
+    private void work() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            batches.increment();
+            batchedOrders.add(batch.size());
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<Submission> batch) {
+        for (Submission submission : batch) {
+            update(intakes.get(submission.id), OrderIntake.Status.PROCESSING, null, null, null);
+        }
+        if (batch.size() > 1) {
+            List<Order> orders;
+            try {
+                orders = transactionTemplate.execute(status -> {
+                    List<Order> created = new ArrayList<>(batch.size());
+                    for (Submission submission : batch) {
+                        created.add(orderService.createOrder(submission.request));
+                    }
+                    return created;
+                });
+            } catch (RuntimeException e) {
+                // Nothing of the batch committed; retry its orders singly so only the bad one fails
+                orders = null;
+                batchFallbacks.increment();
+            }
+            if (orders != null) {
+                for (int i = 0; i < batch.size(); i++) {
+                    finish(batch.get(i), orders.get(i), null);
+                }
+                return;
+            }
+        }
+        for (Submission submission : batch) {
+            try {
+                finish(submission, orderService.createOrder(submission.request), null);
+            } catch (RuntimeException e) {
+                finish(submission, null, e);
+            }
+        }
+    }
+
+    private void finish(Submission submission, Order order, RuntimeException error) {
+        OrderIntake queued = intakes.get(submission.id);
+        OrderIntake result;
+        if (error == null) {
+            result = update(queued, OrderIntake.Status.COMPLETED, order.getId(), null, LocalDateTime.now());
+            completed.increment();
+        } else {
+            result = update(queued, OrderIntake.Status.FAILED, null, error.getMessage(), LocalDateTime.now());
+            failed.increment();
+        }
+
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submission.submittedNanos);
+        totalLatencyMillis.add(latency);
+        maxLatencyMillis.accumulateAndGet(latency, Math::max);
+
+        CompletableFuture<OrderIntake> completion = completions.get(submission.id);
+        if (completion != null) {
+            completion.complete(result);
+        }
+    }
+
+    // Intakes are replaced rather than mutated, so pollers always see a consistent state
+    private OrderIntake update(OrderIntake base, OrderIntake.Status status, Long orderId, String error,
+                               LocalDateTime completedAt) {
+        OrderIntake updated = new OrderIntake(base.getId(), base.getUserId(), status, orderId, error,
+                base.getSubmittedAt(), completedAt);
+        intakes.put(updated.getId(), updated);
+        return updated;
+    }
+
+    private static final class Submission {
+        private final String id;
+        private final OrderRequest request;
+        private final long submittedNanos;
+
+        private Submission(String id, OrderRequest request, long submittedNanos) {
+            this.id = id;
+            this.request = request;
+            this.submittedNanos = submittedNanos;
+        }
+    }
+}
@@ -5,26 +5,53 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.dto.BulkOrderStatusResult;
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.dto.OrderSummary;
 import org.pharmacy.api.dto.OrderItemRequest;
+import org.pharmacy.api.event.OrderPlacedEvent;
+import org.pharmacy.api.event.OrderStatusChangedEvent;
 import org.pharmacy.api.model.*;
 import org.pharmacy.api.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    // Card orders hold their stock until paid; cash orders are paid on delivery
+    private static final String CARD_PAYMENT = "CARD";
+
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final PrescriptionRepository prescriptionRepository;
     private final NotificationService notificationService;
+    private final StockLedger stockLedger;
+    private final CheckoutHolds checkoutHolds;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderArchive orderArchive;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Order createOrder(OrderRequest request) {
@@ -47,19 +74,27 @@ public class OrderService {
             order.setPrescription(prescription);
         }
 
+        // Every product in the basket comes back in one query and is validated before any item is built
+        Map<Long, Product> products = loadProducts(request.getItems());
+        if (request.getPrescriptionId() == null) {
+            List<String> needPrescription = new ArrayList<>();
+            for (Product product : products.values()) {
+                if (Boolean.TRUE.equals(product.getPrescriptionRequired())) {
+                    needPrescription.add(product.getName());
+                }
+            }
+            if (!needPrescription.isEmpty()) {
+                throw new RuntimeException("Product requires prescription: " + String.join(", ", needPrescription));
+            }
+        }
+
         double totalAmount = 0.0;
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Double> revenue = new HashMap<>();
+        Map<Long, String> productNames = new HashMap<>();
 
         for (OrderItemRequest itemRequest : request.getItems()) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-
-            if (product.getPrescriptionRequired() && request.getPrescriptionId() == null) {
-                throw new RuntimeException("Product requires prescription: " + product.getName());
-            }
-
-            if (product.getStockQuantity() < itemRequest.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
-            }
+            Product product = products.get(itemRequest.getProductId());
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -71,13 +106,24 @@ public class OrderService {
             order.getItems().add(orderItem);
             totalAmount += orderItem.getSubtotal();
 
-            product.setStockQuantity(product.getStockQuantity() - itemRequest.getQuantity());
-            productRepository.save(product);
+            quantities.merge(product.getId(), itemRequest.getQuantity(), Integer::sum);
+            revenue.merge(product.getId(), orderItem.getSubtotal(), Double::sum);
+            productNames.put(product.getId(), product.getName());
         }
 
+        // All-or-nothing reservation against the in-memory ledger; released again if this transaction rolls back
+        stockLedger.reserve(quantities, productNames);
+
         order.setTotalAmount(totalAmount);
         order = orderRepository.save(order);
 
+        if (CARD_PAYMENT.equalsIgnoreCase(order.getPaymentMethod())) {
+            checkoutHolds.place(order.getId(), order.getCreatedAt());
+        }
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(), user.getId(), null, order.getStatus(), order.getTotalAmount()));
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), order.getCreatedAt(), quantities, revenue));
+
         notificationService.createNotification(
                 user,
                 "Order Created",
@@ -88,27 +134,68 @@ public class OrderService {
         return order;
     }
 
+    private Map<Long, Product> loadProducts(List<OrderItemRequest> items) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (OrderItemRequest item : items) {
+            ids.add(item.getProductId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            products.put(product.getId(), product);
+        }
+        if (products.size() < ids.size()) {
+            ids.removeAll(products.keySet());
+            throw new RuntimeException("Product not found: " + ids);
+        }
+        return products;
+    }
+
     @Transactional(readOnly = true)
-    public List<Order> getUserOrders(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findByUserId(userId);
+    public List<OrderSummary> getUserOrders(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        List<OrderSummary> orders = new ArrayList<>(orderArchive.findUserSummaries(userId));
+        orders.addAll(orderRepository.findSummariesByUserId(userId));
+        orders.sort(Comparator.comparing(OrderSummary::getId));
+        return orders;
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getAllOrders() {
+        return orderRepository.findAllSummaries();
     }
 
     @Transactional(readOnly = true)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public CursorPage<OrderSummary> getOrderPage(Long cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<OrderSummary> orders = orderRepository.findSummariesAfter(
+                CursorPage.after(cursor), CursorPage.limit(pageSize));
+        return CursorPage.of(orders, pageSize, OrderSummary::getId);
     }
 
+    /**
+     * A live order, or a read-only copy of an archived one.
+     */
     @Transactional(readOnly = true)
     public Order getOrderById(Long id) {
-        return orderRepository.findById(id)
+        return orderRepository.findDetailedById(id)
+                .or(() -> orderArchive.findOrder(id))
                 .orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
-    @Transactional
+    private Order getLiveOrder(Long id) {
+        return orderRepository.findDetailedById(id)
+                .orElseThrow(() -> new RuntimeException(orderArchive.contains(id)
+                        ? "Archived orders cannot be changed" : "Order not found"));
+    }
+
     public Order updateOrderStatus(Long id, String status) {
-        Order order = getOrderById(id);
+        return optimisticRetry.execute("order.updateStatus", () -> applyOrderStatus(id, status));
+    }
+
+    private Order applyOrderStatus(Long id, String status) {
+        Order order = getLiveOrder(id);
         Order.OrderStatus oldStatus = order.getStatus();
 
         try {
@@ -124,10 +211,16 @@ public class OrderService {
                 returnStockToInventory(order);
             }
 
+            if (newStatus != Order.OrderStatus.PENDING) {
+                checkoutHolds.release(order.getId());
+            }
+
             order.setStatus(newStatus);
             order.setUpdatedAt(LocalDateTime.now());
 
             order = orderRepository.save(order);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                    order.getId(), order.getUser().getId(), oldStatus, newStatus, order.getTotalAmount()));
 
             notificationService.createNotification(
                     order.getUser(),
@@ -142,20 +235,116 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    /**
+     * Move many orders to {@code status} at once. Each order is checked
+     * against {@link Order.OrderStatus#canTransitionTo}; the valid ones are
+     * updated with one statement per current status, cancellations return
+     * their stock with one release per product, and the notifications are
+     * inserted in batches. Orders that cannot move are reported, not failed.
+     */
+    public BulkOrderStatusResult bulkUpdateStatus(List<Long> orderIds, String status) {
+        Order.OrderStatus newStatus;
+        try {
+            newStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid order status: " + status);
+        }
+        return optimisticRetry.execute("order.bulkUpdateStatus", () -> applyBulkStatus(orderIds, newStatus));
+    }
+
+    private BulkOrderStatusResult applyBulkStatus(List<Long> orderIds, Order.OrderStatus newStatus) {
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        Map<Long, Order.OrderStatus> currentStatuses = new HashMap<>();
+        Map<Long, Long> owners = new HashMap<>();
+        Map<Long, Double> amounts = new HashMap<>();
+        for (Object[] row : orderRepository.findStatusesByIdIn(requested)) {
+            currentStatuses.put((Long) row[0], (Order.OrderStatus) row[1]);
+            owners.put((Long) row[0], (Long) row[2]);
+            amounts.put((Long) row[0], (Double) row[3]);
+        }
+
+        BulkOrderStatusResult result = new BulkOrderStatusResult();
+        result.setStatus(newStatus.name());
+        Map<Order.OrderStatus, List<Long>> byCurrentStatus = new EnumMap<>(Order.OrderStatus.class);
+        for (Long id : requested) {
+            Order.OrderStatus current = currentStatuses.get(id);
+            if (current == null) {
+                result.getSkipped().put(id, "Order not found");
+            } else if (!current.canTransitionTo(newStatus)) {
+                result.getSkipped().put(id, "Cannot change status from " + current + " to " + newStatus);
+            } else {
+                byCurrentStatus.computeIfAbsent(current, s -> new ArrayList<>()).add(id);
+                result.getUpdated().add(id);
+            }
+        }
+        if (result.getUpdated().isEmpty()) {
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Order.OrderStatus, List<Long>> group : byCurrentStatus.entrySet()) {
+            int count = orderRepository.updateStatus(group.getValue(), group.getKey(), newStatus, now);
+            if (count != group.getValue().size()) {
+                // Another writer moved one of these orders since it was read; start over
+                throw new OptimisticLockingFailureException("Orders changed during bulk status update");
+            }
+        }
+
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            Map<Long, Integer> quantities = new TreeMap<>();
+            for (Object[] row : orderItemRepository.sumQuantitiesByProduct(result.getUpdated())) {
+                quantities.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            stockLedger.release(quantities);
+        }
+        checkoutHolds.releaseAll(result.getUpdated());
+
+        List<Notification> notifications = new ArrayList<>(result.getUpdated().size());
+        for (Long id : result.getUpdated()) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                    id, owners.get(id), currentStatuses.get(id), newStatus, amounts.get(id)));
+
+            Notification notification = new Notification();
+            notification.setUser(userRepository.getReferenceById(owners.get(id)));
+            notification.setType(Notification.NotificationType.ORDER_UPDATE);
+            if (newStatus == Order.OrderStatus.CANCELLED) {
+                notification.setTitle("Order Cancelled");
+                notification.setMessage("Your order #" + id + " has been cancelled.");
+            } else {
+                notification.setTitle("Order Status Updated");
+                notification.setMessage("Your order #" + id + " status is now: " + newStatus);
+            }
+            notifications.add(notification);
+        }
+        notificationService.createNotifications(notifications);
+
+        return result;
+    }
+
     public void cancelOrder(Long id) {
-        Order order = getOrderById(id);
+        optimisticRetry.run("order.cancel", () -> applyCancel(id));
+    }
+
+    private void applyCancel(Long id) {
+        Order order = getLiveOrder(id);
 
         if (order.getStatus() == Order.OrderStatus.DELIVERED) {
             throw new RuntimeException("Cannot cancel delivered order");
         }
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            throw new RuntimeException("Order is already cancelled");
+        }
+        checkoutHolds.release(order.getId());
 
         // Return stock to inventory
         returnStockToInventory(order);
 
+        Order.OrderStatus oldStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(), order.getUser().getId(), oldStatus, Order.OrderStatus.CANCELLED, order.getTotalAmount()));
 
         notificationService.createNotification(
                 order.getUser(),
@@ -165,14 +354,83 @@ public class OrderService {
         );
     }
 
+    public Map<String, Object> getCheckoutHoldStats() {
+        return checkoutHolds.getStats();
+    }
+
+    /**
+     * Cancel card orders whose checkout hold ran out before payment, returning
+     * their stock in one batch.
+     */
+    @Scheduled(fixedDelayString = "${pharmacy.checkout.hold-tick-ms:1000}")
+    public void expireCheckoutHolds() {
+        List<Long> expired = checkoutHolds.advance();
+        if (expired.isEmpty()) {
+            return;
+        }
+        try {
+            optimisticRetry.run("order.expireHolds", () -> cancelExpired(expired));
+        } catch (RuntimeException e) {
+            // Nothing was cancelled; re-arm the holds so the stock is not kept forever
+            checkoutHolds.retry(expired);
+            throw e;
+        }
+    }
+
+    private void cancelExpired(List<Long> expired) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        List<Order> cancelled = new ArrayList<>();
+        for (Order order : orderRepository.findByIdIn(expired)) {
+            if (order.getStatus() != Order.OrderStatus.PENDING) {
+                continue;
+            }
+            for (OrderItem item : order.getItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            order.setUpdatedAt(LocalDateTime.now());
+            cancelled.add(order);
+        }
+        if (cancelled.isEmpty()) {
+            return;
+        }
+
+        orderRepository.saveAll(cancelled);
+        stockLedger.release(quantities);
+        for (Order order : cancelled) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getUser().getId(),
+                    Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED, order.getTotalAmount()));
+            notificationService.createNotification(
+                    order.getUser(),
+                    "Order Cancelled",
+                    "Your order #" + order.getId() + " was cancelled because payment was not completed within "
+                            + checkoutHolds.getTtl().toMinutes() + " minutes.",
+                    "ORDER_UPDATE"
+            );
+        }
+    }
+
+    /**
+     * Re-arm holds for card orders still awaiting payment after a restart;
+     * ones already past their deadline expire on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverCheckoutHolds() {
+        for (Order order : orderRepository.findByStatus(Order.OrderStatus.PENDING)) {
+            if (CARD_PAYMENT.equalsIgnoreCase(order.getPaymentMethod())) {
+                checkoutHolds.place(order.getId(), order.getCreatedAt());
+            }
+        }
+    }
+
     /**
      * Return stock to inventory when order is cancelled or status changed from delivered
      */
     private void returnStockToInventory(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
         for (OrderItem item : order.getItems()) {
-            Product product = item.getProduct();
-            product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
-            productRepository.save(product);
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        stockLedger.release(quantities);
     }
 }
\ No newline at end of file
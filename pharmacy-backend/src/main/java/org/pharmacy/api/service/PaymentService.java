@@ -7,6 +7,7 @@ package org.pharmacy.api.service;
 
 import org.pharmacy.api.dto.PaymentRequest;
 import org.pharmacy.api.dto.PaymentVerificationRequest;
+import org.pharmacy.api.event.OrderStatusChangedEvent;
 import org.pharmacy.api.model.Order;
 import org.pharmacy.api.model.Payment;
 import org.pharmacy.api.model.User;
@@ -14,6 +15,7 @@ import org.pharmacy.api.repository.OrderRepository;
 import org.pharmacy.api.repository.PaymentRepository;
 import org.pharmacy.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,17 +31,25 @@ public class PaymentService {
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final CheckoutHolds checkoutHolds;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderArchive orderArchive;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String VALID_CARD_NUMBER = "4111111111111111";
 
     @Transactional
     public Payment initiatePayment(PaymentRequest request) {
-        Order order = orderRepository.findById(request.getOrderId())
+        Order order = orderRepository.findDetailedById(request.getOrderId())
                 .orElseThrow(() -> new RuntimeException("Order not found"));
 
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            throw new RuntimeException("Order has been cancelled");
+        }
+
         // Validate card number
         String cardNumber = request.getCardNumber().replaceAll("\\s+", "");
         if (!VALID_CARD_NUMBER.equals(cardNumber)) {
@@ -77,25 +87,36 @@ public class PaymentService {
         return payment;
     }
 
-    @Transactional
     public Payment verifyPayment(PaymentVerificationRequest request) {
-        Payment payment = paymentRepository.findById(request.getPaymentId())
+        return optimisticRetry.execute("payment.verify", () -> applyVerification(request));
+    }
+
+    private Payment applyVerification(PaymentVerificationRequest request) {
+        Payment payment = paymentRepository.findDetailedById(request.getPaymentId())
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
 
         if (payment.getStatus() != Payment.PaymentStatus.PROCESSING) {
             throw new RuntimeException("Payment is not in processing state");
         }
 
+        Order order = payment.getOrder();
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            throw new RuntimeException("Order has been cancelled; its stock hold expired before payment");
+        }
+
         // Simulate payment verification (always succeeds for valid card)
         payment.setStatus(Payment.PaymentStatus.COMPLETED);
         payment.setUpdatedAt(LocalDateTime.now());
         payment = paymentRepository.save(payment);
 
-        // Update order status
-        Order order = payment.getOrder();
+        // Update order status; the held stock now belongs to a paid order
+        checkoutHolds.release(order.getId());
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.PROCESSING);
         order.setUpdatedAt(LocalDateTime.now());
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getId(), order.getUser().getId(),
+                previousStatus, Order.OrderStatus.PROCESSING, order.getTotalAmount()));
 
         notificationService.createNotification(
                 payment.getUser(),
@@ -112,12 +133,14 @@ public class PaymentService {
     public List<Payment> getPaymentHistory(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return paymentRepository.findByUserId(userId);
+        List<Payment> payments = orderArchive.findUserPayments(userId);
+        payments.addAll(paymentRepository.findByUserId(userId));
+        return payments;
     }
 
     @Transactional(readOnly = true)
     public Payment getPaymentById(Long id) {
-        return paymentRepository.findById(id)
+        return paymentRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
     }
 
@@ -6,11 +6,13 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.event.PrescriptionStatusChangedEvent;
 import org.pharmacy.api.model.Prescription;
 import org.pharmacy.api.model.User;
 import org.pharmacy.api.repository.PrescriptionRepository;
 import org.pharmacy.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +27,8 @@ public class PrescriptionService {
     private final PrescriptionRepository prescriptionRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final OptimisticRetry optimisticRetry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Prescription uploadPrescription(Long userId, String fileName, String fileType, String doctorName, String notes) {
@@ -41,6 +45,8 @@ public class PrescriptionService {
         prescription.setStatus(Prescription.PrescriptionStatus.PENDING);
 
         prescription = prescriptionRepository.save(prescription);
+        eventPublisher.publishEvent(new PrescriptionStatusChangedEvent(
+                prescription.getId(), null, Prescription.PrescriptionStatus.PENDING));
 
         notificationService.createNotification(
                 user,
@@ -63,17 +69,23 @@ public class PrescriptionService {
                 .orElseThrow(() -> new RuntimeException("Prescription not found"));
     }
 
-    @Transactional
     public Prescription approvePrescription(Long id, String pharmacistEmail) {
+        return optimisticRetry.execute("prescription.approve", () -> applyApproval(id, pharmacistEmail));
+    }
+
+    private Prescription applyApproval(Long id, String pharmacistEmail) {
         Prescription prescription = getPrescriptionById(id);
         User pharmacist = userRepository.findByEmail(pharmacistEmail)
                 .orElseThrow(() -> new RuntimeException("Pharmacist not found"));
 
+        Prescription.PrescriptionStatus previousStatus = prescription.getStatus();
         prescription.setStatus(Prescription.PrescriptionStatus.APPROVED);
         prescription.setReviewedBy(pharmacist);
         prescription.setReviewedAt(LocalDateTime.now());
 
         prescription = prescriptionRepository.save(prescription);
+        eventPublisher.publishEvent(new PrescriptionStatusChangedEvent(
+                prescription.getId(), previousStatus, Prescription.PrescriptionStatus.APPROVED));
 
         notificationService.createNotification(
                 prescription.getUser(),
@@ -85,18 +97,24 @@ public class PrescriptionService {
         return prescription;
     }
 
-    @Transactional
     public Prescription rejectPrescription(Long id, String pharmacistEmail, String reason) {
+        return optimisticRetry.execute("prescription.reject", () -> applyRejection(id, pharmacistEmail, reason));
+    }
+
+    private Prescription applyRejection(Long id, String pharmacistEmail, String reason) {
         Prescription prescription = getPrescriptionById(id);
         User pharmacist = userRepository.findByEmail(pharmacistEmail)
                 .orElseThrow(() -> new RuntimeException("Pharmacist not found"));
 
+        Prescription.PrescriptionStatus previousStatus = prescription.getStatus();
         prescription.setStatus(Prescription.PrescriptionStatus.REJECTED);
         prescription.setReviewedBy(pharmacist);
         prescription.setReviewedAt(LocalDateTime.now());
         prescription.setRejectionReason(reason);
 
         prescription = prescriptionRepository.save(prescription);
+        eventPublisher.publishEvent(new PrescriptionStatusChangedEvent(
+                prescription.getId(), previousStatus, Prescription.PrescriptionStatus.REJECTED));
 
         notificationService.createNotification(
                 prescription.getUser(),
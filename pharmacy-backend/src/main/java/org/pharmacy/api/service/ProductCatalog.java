@@ -0,0 +1,434 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, versioned in-memory copy of the product catalog.
+ * Loaded from the database on first read, then patched with the products
+ * written by committed transactions, so catalog reads never hit the database.
+ * Products are held in a persistent 64-way trie on the id, so a patch copies
+ * only the path to each changed product rather than the whole catalog; the
+ * id-ordered list is built once per version, on first request.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalog {
+
+    private final ProductRepository productRepository;
+    private final List<Listener> listeners;
+
+    private volatile Snapshot snapshot;
+    private long lastVersion;
+
+    // Committed changes not yet folded into the snapshot; an empty Optional marks a deleted product
+    private final Map<Long, Optional<Product>> pendingChanges = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong patches = new AtomicLong();
+
+    /**
+     * All products ordered by id. The returned entities are detached copies
+     * shared between readers and must not be modified.
+     */
+    public List<Product> getProducts() {
+        return current().products();
+    }
+
+    public int size() {
+        return current().byId.size;
+    }
+
+    /**
+     * Up to {@code limit} products with an id greater than {@code afterId}.
+     */
+    public List<Product> getPage(long afterId, int limit) {
+        List<Product> page = new ArrayList<>(limit);
+        if (limit > 0) {
+            current().byId.forEachFrom(afterId + 1, product -> {
+                page.add(product);
+                return page.size() < limit;
+            });
+        }
+        return page;
+    }
+
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /**
+     * Fold any committed changes into the snapshot (and its listeners) and
+     * return the resulting version.
+     */
+    public long ensureCurrent() {
+        return current().version;
+    }
+
+    public long getVersion() {
+        Snapshot current = snapshot;
+        return current != null ? current.version : 0L;
+    }
+
+    /**
+     * Record a created or updated product. The snapshot is patched once the
+     * surrounding transaction commits, or immediately when there is none.
+     */
+    public void productChanged(Product product) {
+        afterCommit(() -> pendingChanges.put(product.getId(), Optional.of(copyOf(product))));
+    }
+
+    /**
+     * Record a committed stock level that was not written through the entity
+     * (see {@link StockLedger}); the rest of the product is taken from the
+     * pending change or the current snapshot. Call after commit.
+     */
+    public void stockChanged(Long productId, int stockQuantity) {
+        pendingChanges.compute(productId, (id, pending) -> {
+            Snapshot current = snapshot;
+            Product base = pending != null ? pending.orElse(null)
+                    : current != null ? current.byId.get(id) : null;
+            if (base == null) {
+                return pending; // deleted meanwhile, or not loaded yet (the rebuild reads it)
+            }
+            // Only the stock moved; the row itself was not written, so updatedAt stays as it was
+            Product updated = copyOf(base);
+            updated.setStockQuantity(stockQuantity);
+            return Optional.of(updated);
+        });
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(() -> pendingChanges.put(productId, Optional.empty()));
+    }
+
+    /**
+     * Load the snapshot once the application is up, so listeners are
+     * populated before the first request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureCurrent();
+    }
+
+    /**
+     * Fold committed changes in even when nobody reads the catalog, so
+     * listeners such as low-stock alerts react within one interval.
+     */
+    @Scheduled(fixedDelayString = "${pharmacy.catalog.refresh-interval-ms:1000}")
+    public void applyPendingChanges() {
+        if (snapshot != null && !pendingChanges.isEmpty()) {
+            refresh();
+        }
+    }
+
+    /**
+     * Drop the snapshot so the next read reloads it from the database.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("version", current != null ? current.version : 0L);
+        stats.put("size", current != null ? current.byId.size : 0);
+        stats.put("pendingChanges", pendingChanges.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("patches", patches.get());
+        return stats;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && pendingChanges.isEmpty()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        return refresh();
+    }
+
+    private synchronized Snapshot refresh() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.incrementAndGet();
+            current = rebuild();
+        } else {
+            hits.incrementAndGet();
+        }
+        if (!pendingChanges.isEmpty()) {
+            current = patch(current);
+        }
+        snapshot = current;
+        return current;
+    }
+
+    private Snapshot rebuild() {
+        List<Product> products = new ArrayList<>();
+        for (Product product : productRepository.findAll()) {
+            products.add(copyOf(product));
+        }
+        Snapshot rebuilt = new Snapshot(++lastVersion, IdTrie.of(products));
+        for (Listener listener : listeners) {
+            listener.onRebuild(rebuilt.products());
+        }
+        rebuilds.incrementAndGet();
+        return rebuilt;
+    }
+
+    private Snapshot patch(Snapshot current) {
+        IdTrie products = current.byId;
+        for (Map.Entry<Long, Optional<Product>> entry : pendingChanges.entrySet()) {
+            Optional<Product> change = entry.getValue();
+            // Only drain the entry we applied, a newer commit may have replaced it meanwhile
+            if (pendingChanges.remove(entry.getKey(), change)) {
+                Product previous = products.get(entry.getKey());
+                products = change.isPresent()
+                        ? products.with(entry.getKey(), change.get())
+                        : products.without(entry.getKey());
+                for (Listener listener : listeners) {
+                    listener.onChange(previous, change.orElse(null));
+                }
+            }
+        }
+        patches.incrementAndGet();
+        return new Snapshot(++lastVersion, products);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setCategory(source.getCategory());
+        copy.setBrand(source.getBrand());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setPrescriptionRequired(source.getPrescriptionRequired());
+        copy.setStockQuantity(source.getStockQuantity());
+        copy.setReorderLevel(source.getReorderLevel());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    /**
+     * Secondary structures kept in step with the snapshot. Callbacks run
+     * while the catalog lock is held, so implementations see one writer at a time.
+     */
+    public interface Listener {
+
+        void onRebuild(Collection<Product> products);
+
+        /**
+         * @param previous the product before the change, null when it was created
+         * @param current  the product after the change, null when it was deleted
+         */
+        void onChange(Product previous, Product current);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final IdTrie byId;
+        private volatile List<Product> products;
+
+        private Snapshot(long version, IdTrie byId) {
+            this.version = version;
+            this.byId = byId;
+        }
+
+        // Built on first use; a version nobody lists never pays for it
+        private List<Product> products() {
+            List<Product> list = products;
+            if (list == null) {
+                List<Product> all = new ArrayList<>(byId.size);
+                byId.forEachFrom(0, product -> {
+                    all.add(product);
+                    return true;
+                });
+                list = Collections.unmodifiableList(all);
+                products = list;
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Persistent map from product id to product: a radix trie taking six
+     * bits of the id per level, so ids a sequence hands out fill whole
+     * 64-slot leaves. {@link #with} and {@link #without} return a new trie
+     * sharing every node off the path to that id; iteration is in id order.
+     */
+    private static final class IdTrie {
+        private static final int BITS = 6;
+        private static final int WIDTH = 1 << BITS;
+        private static final int MASK = WIDTH - 1;
+        private static final IdTrie EMPTY = new IdTrie(null, 0, 0);
+
+        private final Object[] root;
+        // Bits below the root's level; the root covers ids below 2^(shift + BITS)
+        private final int shift;
+        private final int size;
+
+        private IdTrie(Object[] root, int shift, int size) {
+            this.root = root;
+            this.shift = shift;
+            this.size = size;
+        }
+
+        // Built in place, since nothing shares these nodes yet
+        private static IdTrie of(Collection<Product> products) {
+            IdTrie trie = EMPTY;
+            for (Product product : products) {
+                trie = trie.put(product.getId(), product, true);
+            }
+            return trie;
+        }
+
+        private Product get(long id) {
+            if (root == null || !covers(id, shift)) {
+                return null;
+            }
+            Object[] node = root;
+            for (int level = shift; level > 0; level -= BITS) {
+                node = (Object[]) node[index(id, level)];
+                if (node == null) {
+                    return null;
+                }
+            }
+            return (Product) node[index(id, 0)];
+        }
+
+        private IdTrie with(long id, Product product) {
+            return put(id, product, false);
+        }
+
+        private IdTrie without(long id) {
+            if (get(id) == null) {
+                return this;
+            }
+            Object[] updated = remove(root, shift, id);
+            return updated == null ? EMPTY : new IdTrie(updated, shift, size - 1);
+        }
+
+        /**
+         * Visit products with an id of at least {@code fromId} in id order,
+         * until {@code visitor} returns false.
+         */
+        private void forEachFrom(long fromId, Predicate<Product> visitor) {
+            if (root != null) {
+                visit(root, shift, 0L, fromId, visitor);
+            }
+        }
+
+        private IdTrie put(long id, Product product, boolean inPlace) {
+            if (id < 0) {
+                throw new IllegalArgumentException("Product id must not be negative: " + id);
+            }
+            Object[] top = root;
+            int topShift = shift;
+            if (top == null) {
+                top = new Object[WIDTH];
+                topShift = 0;
+            }
+            while (!covers(id, topShift)) {
+                // Grow a level: the old root becomes the first child of the new one
+                Object[] grown = new Object[WIDTH];
+                grown[0] = top;
+                top = grown;
+                topShift += BITS;
+            }
+            boolean added = get(id) == null;
+            return new IdTrie(put(top, topShift, id, product, inPlace), topShift, added ? size + 1 : size);
+        }
+
+        private static Object[] put(Object[] node, int shift, long id, Product product, boolean inPlace) {
+            Object[] copy = node == null ? new Object[WIDTH] : inPlace ? node : node.clone();
+            int index = index(id, shift);
+            copy[index] = shift == 0 ? product : put((Object[]) copy[index], shift - BITS, id, product, inPlace);
+            return copy;
+        }
+
+        // The copied node, or null when it is left empty and can be dropped
+        private static Object[] remove(Object[] node, int shift, long id) {
+            Object[] copy = node.clone();
+            int index = index(id, shift);
+            copy[index] = shift == 0 ? null : remove((Object[]) copy[index], shift - BITS, id);
+            for (Object slot : copy) {
+                if (slot != null) {
+                    return copy;
+                }
+            }
+            return null;
+        }
+
+        private static boolean visit(Object[] node, int shift, long base, long fromId, Predicate<Product> visitor) {
+            for (int i = 0; i < WIDTH; i++) {
+                Object child = node[i];
+                long low = base | ((long) i << shift);
+                // Skip subtrees whose ids all lie below fromId
+                if (child == null || low + ((1L << shift) - 1) < fromId) {
+                    continue;
+                }
+                boolean more = shift == 0
+                        ? visitor.test((Product) child)
+                        : visit((Object[]) child, shift - BITS, low, fromId, visitor);
+                if (!more) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean covers(long id, int shift) {
+            return id >= 0 && (shift + BITS >= Long.SIZE - 1 || id >>> (shift + BITS) == 0);
+        }
+
+        private static int index(long id, int shift) {
+            return (int) (id >>> shift) & MASK;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-facet bitsets over the catalog. Every product owns a slot, and each
+ * facet value (a category, a brand, Rx-required, in-stock, a price band)
+ * is the set of slots carrying it, so any combination of filters is a
+ * handful of bitwise ORs and ANDs.
+ */
+@Component
+public class ProductFacetIndex implements ProductCatalog.Listener {
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String PRESCRIPTION_REQUIRED = "prescriptionRequired";
+    public static final String IN_STOCK = "inStock";
+    public static final String PRICE_BAND = "priceBand";
+
+    private static final String PRODUCT_IDS = "productIds";
+
+    public enum PriceBand {
+        UNDER_5("0-5", 0, 5),
+        FROM_5_TO_10("5-10", 5, 10),
+        FROM_10_TO_20("10-20", 10, 20),
+        FROM_20_TO_50("20-50", 20, 50),
+        OVER_50("50+", 50, Double.MAX_VALUE);
+
+        private final String label;
+        private final double min;
+        private final double max;
+
+        PriceBand(String label, double min, double max) {
+            this.label = label;
+            this.min = min;
+            this.max = max;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public static PriceBand of(Double price) {
+            double value = price != null ? price : 0.0;
+            for (PriceBand band : values()) {
+                if (value >= band.min && value < band.max) {
+                    return band;
+                }
+            }
+            return OVER_50;
+        }
+
+        public static PriceBand fromLabel(String label) {
+            for (PriceBand band : values()) {
+                if (band.label.equals(label) || band.name().equalsIgnoreCase(label)) {
+                    return band;
+                }
+            }
+            throw new RuntimeException("Invalid price band: " + label);
+        }
+    }
+
+    /**
+     * Requested filters. Values inside one facet are ORed, facets are ANDed;
+     * empty lists and null flags leave that facet unfiltered. When
+     * {@code productIds} is set (e.g. text search hits) only those products
+     * are considered.
+     */
+    public record Filter(Collection<Long> productIds, List<String> categories, List<String> brands,
+                         Boolean prescriptionRequired, Boolean inStock, List<PriceBand> priceBands) {
+    }
+
+    /**
+     * Matching product ids (ascending) and, for each facet, how many products
+     * each value would match given all the other facets' filters.
+     */
+    public record Result(List<Long> productIds, Map<String, Map<String, Integer>> facetCounts) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<Long> slotIds = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet freeSlots = new BitSet();
+
+    private final Map<String, BitSet> categories = new TreeMap<>();
+    private final Map<String, BitSet> brands = new TreeMap<>();
+    private final BitSet prescriptionRequired = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<PriceBand, BitSet> priceBands = new EnumMap<>(PriceBand.class);
+
+    @Override
+    public void onRebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            slotIds.clear();
+            live.clear();
+            freeSlots.clear();
+            categories.clear();
+            brands.clear();
+            prescriptionRequired.clear();
+            inStock.clear();
+            priceBands.clear();
+            for (Product product : products) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChange(Product previous, Product current) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            if (current != null) {
+                add(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result filter(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> constraints = new LinkedHashMap<>();
+            constraints.put(PRODUCT_IDS, slotsOf(filter.productIds()));
+            constraints.put(CATEGORY, union(categories, filter.categories()));
+            constraints.put(BRAND, union(brands, filter.brands()));
+            constraints.put(PRESCRIPTION_REQUIRED, flag(prescriptionRequired, filter.prescriptionRequired()));
+            constraints.put(IN_STOCK, flag(inStock, filter.inStock()));
+            constraints.put(PRICE_BAND, union(priceBands, filter.priceBands()));
+
+            BitSet matches = intersectAllExcept(constraints, null);
+
+            Map<String, Map<String, Integer>> facetCounts = new LinkedHashMap<>();
+            facetCounts.put(CATEGORY, counts(categories, intersectAllExcept(constraints, CATEGORY)));
+            facetCounts.put(BRAND, counts(brands, intersectAllExcept(constraints, BRAND)));
+            facetCounts.put(PRESCRIPTION_REQUIRED,
+                    flagCounts(prescriptionRequired, intersectAllExcept(constraints, PRESCRIPTION_REQUIRED)));
+            facetCounts.put(IN_STOCK, flagCounts(inStock, intersectAllExcept(constraints, IN_STOCK)));
+
+            Map<String, Integer> bandCounts = new LinkedHashMap<>();
+            BitSet withoutBand = intersectAllExcept(constraints, PRICE_BAND);
+            for (PriceBand band : PriceBand.values()) {
+                bandCounts.put(band.getLabel(), andCardinality(priceBands.get(band), withoutBand));
+            }
+            facetCounts.put(PRICE_BAND, bandCounts);
+
+            List<Long> ids = new ArrayList<>(matches.cardinality());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                ids.add(slotIds.get(slot));
+            }
+            ids.sort(null);
+            return new Result(ids, facetCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Product product) {
+        int slot = freeSlots.isEmpty() ? slotIds.size() : freeSlots.nextSetBit(0);
+        if (slot == slotIds.size()) {
+            slotIds.add(product.getId());
+        } else {
+            freeSlots.clear(slot);
+            slotIds.set(slot, product.getId());
+        }
+        slots.put(product.getId(), slot);
+        live.set(slot);
+
+        set(categories, product.getCategory(), slot);
+        set(brands, product.getBrand(), slot);
+        prescriptionRequired.set(slot, Boolean.TRUE.equals(product.getPrescriptionRequired()));
+        inStock.set(slot, product.getStockQuantity() != null && product.getStockQuantity() > 0);
+        priceBands.computeIfAbsent(PriceBand.of(product.getPrice()), band -> new BitSet()).set(slot);
+    }
+
+    private void remove(Product product) {
+        Integer slot = slots.remove(product.getId());
+        if (slot == null) {
+            return;
+        }
+        live.clear(slot);
+        freeSlots.set(slot);
+        clear(categories, product.getCategory(), slot);
+        clear(brands, product.getBrand(), slot);
+        prescriptionRequired.clear(slot);
+        inStock.clear(slot);
+        for (BitSet band : priceBands.values()) {
+            band.clear(slot);
+        }
+    }
+
+    private static void set(Map<String, BitSet> facet, String value, int slot) {
+        if (value != null) {
+            facet.computeIfAbsent(value, key -> new BitSet()).set(slot);
+        }
+    }
+
+    private static void clear(Map<String, BitSet> facet, String value, int slot) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = facet.get(value);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                facet.remove(value);
+            }
+        }
+    }
+
+    private BitSet slotsOf(Collection<Long> productIds) {
+        if (productIds == null) {
+            return null;
+        }
+        BitSet bits = new BitSet();
+        for (Long id : productIds) {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                bits.set(slot);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * OR of the requested values, or null when the facet is not filtered.
+     */
+    private static <K> BitSet union(Map<K, BitSet> facet, List<K> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (K value : values) {
+            BitSet bits = facet.get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private BitSet flag(BitSet bits, Boolean required) {
+        if (required == null) {
+            return null;
+        }
+        BitSet result = (BitSet) live.clone();
+        if (required) {
+            result.and(bits);
+        } else {
+            result.andNot(bits);
+        }
+        return result;
+    }
+
+    private BitSet intersectAllExcept(Map<String, BitSet> constraints, String excluded) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> constraint : constraints.entrySet()) {
+            if (constraint.getValue() != null && !constraint.getKey().equals(excluded)) {
+                result.and(constraint.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Integer> counts(Map<String, BitSet> facet, BitSet scope) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> value : facet.entrySet()) {
+            int count = andCardinality(value.getValue(), scope);
+            if (count > 0) {
+                counts.put(value.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Integer> flagCounts(BitSet bits, BitSet scope) {
+        int yes = andCardinality(bits, scope);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("true", yes);
+        counts.put("false", scope.cardinality() - yes);
+        return counts;
+    }
+
+    private static int andCardinality(BitSet bits, BitSet scope) {
+        if (bits == null) {
+            return 0;
+        }
+        BitSet and = (BitSet) bits.clone();
+        and.and(scope);
+        return and.cardinality();
+    }
+}
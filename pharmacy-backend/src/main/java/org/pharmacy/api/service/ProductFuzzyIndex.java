@@ -0,0 +1,276 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over the words of product names and brands, used to answer
+ * misspelled queries ("amoxcillin", "ibuprofin"). Candidate words are found
+ * through shared trigrams and then confirmed with a bounded edit distance,
+ * so a query only looks at words that are already close to it.
+ */
+@Component
+public class ProductFuzzyIndex implements ProductCatalog.Listener {
+
+    // Words shorter than this carry too few trigrams to be matched fuzzily
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private volatile Index index = new Index();
+
+    @Override
+    public void onRebuild(Collection<Product> products) {
+        Index rebuilt = new Index();
+        for (Product product : products) {
+            rebuilt.add(product.getId(), words(product));
+        }
+        index = rebuilt;
+    }
+
+    @Override
+    public void onChange(Product previous, Product current) {
+        if (previous != null && current != null
+                && Objects.equals(previous.getName(), current.getName())
+                && Objects.equals(previous.getBrand(), current.getBrand())) {
+            return;
+        }
+        Index target = index;
+        if (previous != null) {
+            target.remove(previous.getId());
+        }
+        if (current != null) {
+            target.add(current.getId(), words(current));
+        }
+    }
+
+    /**
+     * Product ids whose name or brand matches every query token within the
+     * allowed edit distance, closest first.
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = ProductSearchIndex.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Index target = index;
+        Map<Long, Double> scores = null;
+
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Double> word : target.similarWords(token).entrySet()) {
+                Set<Long> ids = target.wordProducts.get(word.getKey());
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    tokenScores.merge(id, word.getValue(), Math::max);
+                }
+            }
+
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Double> combined = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey()));
+
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    static int maxEdits(int length) {
+        return length <= 4 ? 1 : 2;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent
+     * transpositions), abandoned as soon as it must exceed {@code limit}.
+     * Returns {@code limit + 1} in that case.
+     */
+    static int editDistance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previousRow = new int[b.length() + 1];
+        int[] row = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousRow[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previousRow;
+            previousRow = row;
+            row = current;
+            current = recycled;
+        }
+        return row[b.length()];
+    }
+
+    private static Set<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static Set<String> words(Product product) {
+        Set<String> words = new HashSet<>(ProductSearchIndex.tokenize(product.getName()));
+        words.addAll(ProductSearchIndex.tokenize(product.getBrand()));
+        return words;
+    }
+
+    private static final class Index {
+        private final Map<String, Set<String>> gramWords = new ConcurrentHashMap<>();
+        private final Map<Integer, Set<String>> lengthWords = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> wordProducts = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> productWords = new ConcurrentHashMap<>();
+
+        private void add(Long id, Set<String> words) {
+            productWords.put(id, words);
+            for (String word : words) {
+                wordProducts.computeIfAbsent(word, key -> {
+                    for (String gram : trigrams(key)) {
+                        gramWords.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+                    }
+                    lengthWords.computeIfAbsent(key.length(), l -> ConcurrentHashMap.newKeySet()).add(key);
+                    return ConcurrentHashMap.newKeySet();
+                }).add(id);
+            }
+        }
+
+        private void remove(Long id) {
+            Set<String> words = productWords.remove(id);
+            if (words == null) {
+                return;
+            }
+            for (String word : words) {
+                wordProducts.computeIfPresent(word, (key, ids) -> {
+                    ids.remove(id);
+                    if (!ids.isEmpty()) {
+                        return ids;
+                    }
+                    for (String gram : trigrams(key)) {
+                        gramWords.computeIfPresent(gram, (g, gramSet) -> {
+                            gramSet.remove(key);
+                            return gramSet.isEmpty() ? null : gramSet;
+                        });
+                    }
+                    lengthWords.computeIfPresent(key.length(), (l, lengthSet) -> {
+                        lengthSet.remove(key);
+                        return lengthSet.isEmpty() ? null : lengthSet;
+                    });
+                    return null;
+                });
+            }
+        }
+
+        /**
+         * Indexed words within the edit bound of {@code token}, mapped to a
+         * similarity in (0, 1].
+         */
+        private Map<String, Double> similarWords(String token) {
+            Map<String, Double> similar = new HashMap<>();
+            if (wordProducts.containsKey(token)) {
+                similar.put(token, 1.0);
+            }
+            if (token.length() < MIN_FUZZY_LENGTH) {
+                return similar;
+            }
+
+            int limit = maxEdits(token.length());
+            Set<String> grams = trigrams(token);
+            // q-gram lemma: an edit breaks at most q = 3 of a word's trigrams, so a word within limit
+            // edits shares at least this many. (An adjacent transposition can break four, so a word
+            // two transpositions away can fall under it.)
+            int minShared = grams.size() - 3 * limit;
+            List<String> candidates = new ArrayList<>();
+            if (minShared > 0) {
+                Map<String, Integer> shared = new HashMap<>();
+                for (String gram : grams) {
+                    Set<String> words = gramWords.get(gram);
+                    if (words != null) {
+                        for (String word : words) {
+                            shared.merge(word, 1, Integer::sum);
+                        }
+                    }
+                }
+                for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                    if (candidate.getValue() >= minShared) {
+                        candidates.add(candidate.getKey());
+                    }
+                }
+            } else {
+                // Too short for shared trigrams to rule anything out: every word of a close length is a candidate
+                for (int length = token.length() - limit; length <= token.length() + limit; length++) {
+                    Set<String> words = lengthWords.get(length);
+                    if (words != null) {
+                        candidates.addAll(words);
+                    }
+                }
+            }
+
+            for (String word : candidates) {
+                // The lengths alone already rule out anything further than the bound
+                if (similar.containsKey(word) || Math.abs(word.length() - token.length()) > limit) {
+                    continue;
+                }
+                int distance = editDistance(token, word, limit);
+                if (distance <= limit) {
+                    similar.put(word, 1.0 - (double) distance / Math.max(token.length(), word.length()));
+                }
+            }
+            return similar;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index over product name, brand, category and description.
+ * Terms are kept sorted so a query token also matches every term it is a
+ * prefix of; results are ranked by field-weighted tf-idf.
+ */
+@Component
+public class ProductSearchIndex implements ProductCatalog.Listener {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double BRAND_WEIGHT = 2.0;
+    private static final double CATEGORY_WEIGHT = 1.5;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    // Prefix matches rank below exact term matches
+    private static final double PREFIX_FACTOR = 0.5;
+    // Bounds the work a very short prefix (e.g. "a") can cause
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private volatile Index index = new Index();
+
+    @Override
+    public void onRebuild(Collection<Product> products) {
+        Index rebuilt = new Index();
+        for (Product product : products) {
+            rebuilt.add(product.getId(), termWeights(product));
+        }
+        index = rebuilt;
+    }
+
+    @Override
+    public void onChange(Product previous, Product current) {
+        if (previous != null && current != null && sameText(previous, current)) {
+            return; // stock and price updates leave the index untouched
+        }
+        Index target = index;
+        if (previous != null) {
+            target.remove(previous.getId());
+        }
+        if (current != null) {
+            target.add(current.getId(), termWeights(current));
+        }
+    }
+
+    /**
+     * Product ids matching every token of the query, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Index target = index;
+        int documentCount = Math.max(1, target.documents.size());
+        Map<Long, Double> scores = null;
+
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = target.score(token, documentCount);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Double> combined = new HashMap<>();
+                for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                    Double score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        combined.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = combined;
+            }
+            if (scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey()));
+
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Map<String, Double> termWeights(Product product) {
+        Map<String, Double> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getBrand(), BRAND_WEIGHT);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        return weights;
+    }
+
+    private static boolean sameText(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getBrand(), b.getBrand())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getDescription(), b.getDescription());
+    }
+
+    private static void addField(Map<String, Double> weights, String text, double weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Double::sum);
+        }
+    }
+
+    private static final class Index {
+        private final NavigableMap<String, Map<Long, Double>> postings = new ConcurrentSkipListMap<>();
+        private final Map<Long, Map<String, Double>> documents = new ConcurrentHashMap<>();
+
+        private void add(Long id, Map<String, Double> terms) {
+            documents.put(id, terms);
+            for (Map.Entry<String, Double> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new ConcurrentHashMap<>())
+                        .put(id, term.getValue());
+            }
+        }
+
+        private void remove(Long id) {
+            Map<String, Double> terms = documents.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms.keySet()) {
+                postings.computeIfPresent(term, (key, posting) -> {
+                    posting.remove(id);
+                    return posting.isEmpty() ? null : posting;
+                });
+            }
+        }
+
+        private Map<Long, Double> score(String token, int documentCount) {
+            Map<Long, Double> scores = new HashMap<>();
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Double>> term
+                    : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                Map<Long, Double> posting = term.getValue();
+                double idf = Math.log(1.0 + (double) documentCount / Math.max(1, posting.size()));
+                double factor = term.getKey().equals(token) ? 1.0 : PREFIX_FACTOR;
+                for (Map.Entry<Long, Double> hit : posting.entrySet()) {
+                    // A product matching several expansions keeps its best one
+                    scores.merge(hit.getKey(), hit.getValue() * idf * factor, Math::max);
+                }
+            }
+            return scores;
+        }
+    }
+}
@@ -6,8 +6,12 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.dto.CursorPage;
+import org.pharmacy.api.dto.FacetedSearchResponse;
 import org.pharmacy.api.dto.ProductRequest;
+import org.pharmacy.api.dto.ProductSuggestion;
 import org.pharmacy.api.dto.StockUpdateRequest;
+import org.pharmacy.api.event.LowStockEvent;
 import org.pharmacy.api.model.Product;
 import org.pharmacy.api.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,16 +19,36 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFuzzyIndex productFuzzyIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final LowStockIndex lowStockIndex;
+    private final StockLedger stockLedger;
+    private final OptimisticRetry optimisticRetry;
+
+    private static final int MAX_SUGGESTIONS = 50;
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return productCatalog.getProducts();
+    }
+
+    public CursorPage<Product> getProductPage(Long cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<Product> products = productCatalog.getPage(CursorPage.after(cursor), pageSize + 1);
+        return CursorPage.of(products, pageSize, Product::getId);
     }
 
     public Product getProductById(Long id) {
@@ -48,11 +72,17 @@ public class ProductService {
         product.setReorderLevel(request.getReorderLevel() != null ?
                 request.getReorderLevel() : 10);
 
-        return productRepository.save(product);
+        product = productRepository.save(product);
+        productCatalog.productChanged(product);
+        stockLedger.register(product.getId(), product.getStockQuantity());
+        return product;
     }
 
-    @Transactional
     public Product updateProduct(Long id, ProductRequest request) {
+        return optimisticRetry.execute("product.update", () -> applyUpdate(id, request));
+    }
+
+    private Product applyUpdate(Long id, ProductRequest request) {
         Product product = getProductById(id);
 
         product.setName(request.getName());
@@ -62,11 +92,19 @@ public class ProductService {
         product.setBrand(request.getBrand());
         product.setImageUrl(request.getImageUrl());
         product.setPrescriptionRequired(request.getPrescriptionRequired());
-        product.setStockQuantity(request.getStockQuantity());
+        // The stock column is owned by the ledger, so a missing quantity keeps its current level
+        product.setStockQuantity(request.getStockQuantity() != null
+                ? request.getStockQuantity() : stockLedger.getAvailable(id));
         product.setReorderLevel(request.getReorderLevel());
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepository.save(product);
+        product = productRepository.save(product);
+        productCatalog.productChanged(product);
+        if (request.getStockQuantity() != null) {
+            // Registered after productChanged so the ledger's level wins in the catalog
+            stockLedger.setAvailable(id, request.getStockQuantity());
+        }
+        return product;
     }
 
     @Transactional
@@ -75,10 +113,48 @@ public class ProductService {
             throw new RuntimeException("Product not found");
         }
         productRepository.deleteById(id);
+        productCatalog.productRemoved(id);
+        stockLedger.forget(id);
     }
 
     public List<Product> searchProducts(String query) {
-        return productRepository.findByNameContainingIgnoreCase(query);
+        productCatalog.ensureCurrent();
+        return resolve(rankedMatches(query));
+    }
+
+    /**
+     * Combined category/brand/Rx/stock/price filtering, optionally narrowed
+     * by a text query, with per-facet counts.
+     */
+    public FacetedSearchResponse facetedSearch(String query, List<String> categories, List<String> brands,
+                                               Boolean prescriptionRequired, Boolean inStock,
+                                               List<String> priceBands) {
+        productCatalog.ensureCurrent();
+        List<Long> ranked = query != null && !query.isBlank() ? rankedMatches(query) : null;
+        List<ProductFacetIndex.PriceBand> bands = priceBands == null ? null : priceBands.stream()
+                .map(ProductFacetIndex.PriceBand::fromLabel)
+                .toList();
+
+        ProductFacetIndex.Result result = productFacetIndex.filter(new ProductFacetIndex.Filter(
+                ranked, categories, brands, prescriptionRequired, inStock, bands));
+
+        List<Long> ids = result.productIds();
+        if (ranked != null) {
+            // Keep relevance order for text queries
+            Set<Long> matching = new HashSet<>(ids);
+            ids = ranked.stream().filter(matching::contains).toList();
+        }
+        return new FacetedSearchResponse(ids.size(), resolve(ids), result.facetCounts());
+    }
+
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        productCatalog.ensureCurrent();
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        for (Long id : productSuggestIndex.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS))) {
+            productCatalog.findById(id).ifPresent(product -> suggestions.add(
+                    new ProductSuggestion(product.getId(), product.getName(), product.getBrand())));
+        }
+        return suggestions;
     }
 
     public List<Product> getProductsByCategory(String category) {
@@ -86,33 +162,65 @@ public class ProductService {
     }
 
     public List<Product> getProductsByPrescriptionRequired(Boolean required) {
-        return productRepository.findByPrescriptionRequired(required);
+        productCatalog.ensureCurrent();
+        return resolve(productFacetIndex.filter(new ProductFacetIndex.Filter(
+                null, null, null, required, null, null)).productIds());
+    }
+
+    private List<Long> rankedMatches(String query) {
+        List<Long> ids = productSearchIndex.search(query);
+        if (ids.isEmpty()) {
+            // Nothing matched as typed, retry tolerating misspelled drug names
+            ids = productFuzzyIndex.search(query);
+        }
+        return ids;
+    }
+
+    private List<Product> resolve(List<Long> ids) {
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            productCatalog.findById(id).ifPresent(products::add);
+        }
+        return products;
     }
 
     public List<Product> getLowStockProducts() {
-        return productRepository.findAll().stream()
-                .filter(p -> p.getStockQuantity() <= p.getReorderLevel())
-                .toList();
+        productCatalog.ensureCurrent();
+        return lowStockIndex.getLowStockProducts();
+    }
+
+    public List<LowStockEvent> getLowStockAlerts(Long after) {
+        productCatalog.ensureCurrent();
+        return lowStockIndex.getAlerts(after != null ? after : 0L);
     }
 
-    @Transactional
     public Product updateStock(StockUpdateRequest request) {
+        // A rolled-back attempt puts its ledger adjustment back before the retry
+        return optimisticRetry.execute("product.updateStock", () -> applyStockUpdate(request));
+    }
+
+    private Product applyStockUpdate(StockUpdateRequest request) {
         Product product = getProductById(request.getProductId());
 
+        int delta;
         if ("ADD".equalsIgnoreCase(request.getOperation())) {
-            product.setStockQuantity(product.getStockQuantity() + request.getQuantity());
+            delta = request.getQuantity();
         } else if ("SUBTRACT".equalsIgnoreCase(request.getOperation())) {
-            int newQuantity = product.getStockQuantity() - request.getQuantity();
-            if (newQuantity < 0) {
-                throw new RuntimeException("Insufficient stock");
-            }
-            product.setStockQuantity(newQuantity);
+            delta = -request.getQuantity();
         } else {
             throw new RuntimeException("Invalid operation. Use ADD or SUBTRACT");
         }
 
+        // The ledger updates the catalog and writes the column behind; the entity only carries it back to the caller
+        product.setStockQuantity(stockLedger.adjust(product.getId(), delta));
         product.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        return product;
+    }
+
+    public Map<String, Object> getCatalogStats() {
+        Map<String, Object> stats = productCatalog.getStats();
+        stats.put("stockLedger", stockLedger.getStats());
+        return stats;
     }
 }
 
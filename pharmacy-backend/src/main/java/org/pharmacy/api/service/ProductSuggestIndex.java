@@ -0,0 +1,390 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie for search-as-you-type. Every word start of a product name
+ * ("paracetamol 500mg", "500mg") and of its brand is a key, so typing any
+ * word of a name completes to the product. The trie is radix-compressed
+ * (one node per branch point, edges labelled with whole fragments) and held
+ * in sorted arrays: child first characters in a {@code char[]} searched by
+ * binary search and product ids in a {@code long[]}. Each node also keeps
+ * the top {@link #MAX_COMPLETIONS} completions of its prefix, shortest keys
+ * first, so a lookup is a walk down the prefix and nothing more.
+ * <p>
+ * Nodes are immutable. The trie is built in one pass at startup; after
+ * that a product change inserts and removes only the keys that changed,
+ * copying the nodes on their paths (and recomputing those nodes' top
+ * completions) and publishing the new root, so readers never lock. Nodes
+ * left without keys are pruned and single-child branch points merged back
+ * into their child.
+ */
+@Component
+public class ProductSuggestIndex implements ProductCatalog.Listener {
+
+    /** Completions kept per prefix; longer requests are capped to this. */
+    public static final int MAX_COMPLETIONS = 50;
+
+    private static final Comparator<Completion> SHORTEST_FIRST = Comparator
+            .comparingInt((Completion completion) -> completion.key.length())
+            .thenComparing(completion -> completion.key)
+            .thenComparingLong(completion -> completion.productId);
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+    private static final Node EMPTY = node("", 0, NO_CHILDREN, NO_IDS);
+
+    private volatile Node root = EMPTY;
+    private final Map<Long, Set<String>> productKeys = new HashMap<>();
+
+    @Override
+    public synchronized void onRebuild(Collection<Product> products) {
+        productKeys.clear();
+        for (Product product : products) {
+            productKeys.put(product.getId(), keys(product));
+        }
+        root = build();
+    }
+
+    @Override
+    public synchronized void onChange(Product previous, Product current) {
+        if (previous != null && current != null
+                && Objects.equals(previous.getName(), current.getName())
+                && Objects.equals(previous.getBrand(), current.getBrand())) {
+            return;
+        }
+        long productId = current != null ? current.getId() : previous.getId();
+        Set<String> before = productKeys.getOrDefault(productId, Collections.emptySet());
+        Set<String> after = current != null ? keys(current) : Collections.emptySet();
+
+        Node updated = root;
+        for (String key : before) {
+            if (!after.contains(key)) {
+                updated = remove(updated, key, productId);
+            }
+        }
+        for (String key : after) {
+            if (!before.contains(key)) {
+                updated = insert(updated, key, productId);
+            }
+        }
+        if (after.isEmpty()) {
+            productKeys.remove(productId);
+        } else {
+            productKeys.put(productId, after);
+        }
+        root = updated;
+    }
+
+    /**
+     * Up to {@code limit} distinct product ids whose name or brand has a word
+     * starting with {@code prefix}, at most {@link #MAX_COMPLETIONS}.
+     */
+    public List<Long> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        // Walk down to the node whose subtree holds every key with this prefix
+        Node node = root;
+        int matched = 0;
+        while (matched < normalized.length()) {
+            node = node.child(normalized.charAt(matched));
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            int end = Math.min(node.key.length(), normalized.length());
+            if (!normalized.regionMatches(matched, node.key, matched, end - matched)) {
+                return Collections.emptyList();
+            }
+            matched = end;
+        }
+
+        int count = Math.min(limit, node.top.length);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(node.top[i].productId);
+        }
+        return ids;
+    }
+
+    private Node build() {
+        Map<String, List<Long>> index = new TreeMap<>();
+        for (Map.Entry<Long, Set<String>> entry : productKeys.entrySet()) {
+            for (String key : entry.getValue()) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        if (index.isEmpty()) {
+            return EMPTY;
+        }
+        String[] keys = index.keySet().toArray(new String[0]);
+        long[][] ids = new long[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            ids[i] = index.get(keys[i]).stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        return build(keys, ids, 0, keys.length, 0, 0);
+    }
+
+    /**
+     * The node for the sorted keys {@code [from, to)}, which all share their
+     * first {@code depth} characters; its edge starts at {@code start}.
+     */
+    private static Node build(String[] keys, long[][] ids, int from, int to, int start, int depth) {
+        long[] productIds = NO_IDS;
+        int first = from;
+        if (keys[first].length() == depth) {
+            // Sorted order puts the key that ends here first
+            productIds = ids[first];
+            first++;
+        }
+
+        List<Node> children = new ArrayList<>();
+        int group = first;
+        while (group < to) {
+            char c = keys[group].charAt(depth);
+            int end = group + 1;
+            while (end < to && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            // The first and last keys of a sorted group share what the whole group shares
+            int shared = commonPrefix(keys[group], keys[end - 1]);
+            children.add(build(keys, ids, group, end, depth, shared));
+            group = end;
+        }
+        return node(keys[from].substring(0, depth), start, children.toArray(NO_CHILDREN), productIds);
+    }
+
+    /**
+     * A copy of the subtree under {@code node} with {@code productId} added
+     * under {@code key}, which {@code node}'s own key is a prefix of.
+     */
+    private static Node insert(Node node, String key, long productId) {
+        int depth = node.key.length();
+        if (key.length() == depth) {
+            int index = Arrays.binarySearch(node.productIds, productId);
+            if (index >= 0) {
+                return node;
+            }
+            return node(node.key, node.start, node.children, insertAt(node.productIds, -index - 1, productId));
+        }
+
+        int index = Arrays.binarySearch(node.labels, key.charAt(depth));
+        if (index < 0) {
+            Node leaf = node(key, depth, NO_CHILDREN, new long[]{productId});
+            return node(node.key, node.start, insertAt(node.children, -index - 1, leaf), node.productIds);
+        }
+        Node existing = node.children[index];
+        int shared = commonPrefix(existing.key, key);
+        Node child;
+        if (shared < existing.key.length()) {
+            // The key leaves the edge part-way: split it with a branch point there
+            Node branch = node(key.substring(0, shared), depth, new Node[]{existing.withStart(shared)}, NO_IDS);
+            child = insert(branch, key, productId);
+        } else {
+            child = insert(existing, key, productId);
+        }
+        return node(node.key, node.start, replaceAt(node.children, index, child), node.productIds);
+    }
+
+    /**
+     * A copy of the subtree under {@code node} without {@code productId}
+     * under {@code key}; the same node when there was nothing to remove.
+     */
+    private static Node remove(Node node, String key, long productId) {
+        int depth = node.key.length();
+        if (key.length() == depth) {
+            int index = Arrays.binarySearch(node.productIds, productId);
+            if (index < 0) {
+                return node;
+            }
+            return node(node.key, node.start, node.children, removeAt(node.productIds, index));
+        }
+
+        int index = Arrays.binarySearch(node.labels, key.charAt(depth));
+        if (index < 0 || !key.startsWith(node.children[index].key)) {
+            return node;
+        }
+        Node existing = node.children[index];
+        Node child = remove(existing, key, productId);
+        if (child == existing) {
+            return node;
+        }
+        Node[] children;
+        if (child.productIds.length == 0 && child.children.length == 0) {
+            children = removeAt(node.children, index);
+        } else if (child.productIds.length == 0 && child.children.length == 1) {
+            // No longer a branch point: fold its edge into the only child
+            children = replaceAt(node.children, index, child.children[0].withStart(child.start));
+        } else {
+            children = replaceAt(node.children, index, child);
+        }
+        return node(node.key, node.start, children, node.productIds);
+    }
+
+    /**
+     * A node with its labels and top completions worked out from its
+     * children. A child's top completions are the best of its subtree, so
+     * the best of the merged lists, deduplicated by product, are the best
+     * of this node's subtree.
+     */
+    private static Node node(String key, int start, Node[] children, long[] productIds) {
+        char[] labels = new char[children.length];
+        List<Completion> below = new ArrayList<>();
+        for (int i = 0; i < children.length; i++) {
+            labels[i] = children[i].key.charAt(key.length());
+            Collections.addAll(below, children[i].top);
+        }
+        below.sort(SHORTEST_FIRST);
+
+        // This node's own key is a prefix of, so shorter than, every key below it
+        List<Completion> top = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (long productId : productIds) {
+            if (top.size() == MAX_COMPLETIONS) {
+                break;
+            }
+            seen.add(productId);
+            top.add(new Completion(key, productId));
+        }
+        for (Completion completion : below) {
+            if (top.size() == MAX_COMPLETIONS) {
+                break;
+            }
+            if (seen.add(completion.productId)) {
+                top.add(completion);
+            }
+        }
+        return new Node(key, start, labels, children, productIds, top.toArray(new Completion[0]));
+    }
+
+    private static long[] insertAt(long[] values, int index, long value) {
+        long[] copy = new long[values.length + 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        copy[index] = value;
+        System.arraycopy(values, index, copy, index + 1, values.length - index);
+        return copy;
+    }
+
+    private static long[] removeAt(long[] values, int index) {
+        long[] copy = new long[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, index);
+        System.arraycopy(values, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    private static Node[] insertAt(Node[] nodes, int index, Node node) {
+        Node[] copy = new Node[nodes.length + 1];
+        System.arraycopy(nodes, 0, copy, 0, index);
+        copy[index] = node;
+        System.arraycopy(nodes, index, copy, index + 1, nodes.length - index);
+        return copy;
+    }
+
+    private static Node[] removeAt(Node[] nodes, int index) {
+        Node[] copy = new Node[nodes.length - 1];
+        System.arraycopy(nodes, 0, copy, 0, index);
+        System.arraycopy(nodes, index + 1, copy, index, copy.length - index);
+        return copy;
+    }
+
+    private static Node[] replaceAt(Node[] nodes, int index, Node node) {
+        Node[] copy = nodes.clone();
+        copy[index] = node;
+        return copy;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Set<String> keys(Product product) {
+        Set<String> keys = new LinkedHashSet<>();
+        addWordStarts(keys, product.getName());
+        addWordStarts(keys, product.getBrand());
+        return keys;
+    }
+
+    private static void addWordStarts(Set<String> keys, String text) {
+        String normalized = normalize(text);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /** A product reached through one key; shared between a node and its ancestors' top lists. */
+    private static final class Completion {
+        private final String key;
+        private final long productId;
+
+        private Completion(String key, long productId) {
+            this.key = key;
+            this.productId = productId;
+        }
+    }
+
+    private static final class Node {
+        // The whole prefix this node stands for; its edge is key[start, key.length())
+        private final String key;
+        private final int start;
+        private final char[] labels;
+        private final Node[] children;
+        private final long[] productIds;
+        private final Completion[] top;
+
+        private Node(String key, int start, char[] labels, Node[] children, long[] productIds, Completion[] top) {
+            this.key = key;
+            this.start = start;
+            this.labels = labels;
+            this.children = children;
+            this.productIds = productIds;
+            this.top = top;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        // Same subtree hanging from a different parent, so its edge starts elsewhere
+        private Node withStart(int start) {
+            return new Node(key, start, labels, children, productIds, top);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.dto.SalesTimeseriesPoint;
+import org.pharmacy.api.event.OrderStatusChangedEvent;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.SalesRollup;
+import org.pharmacy.api.model.SalesRollupChange;
+import org.pharmacy.api.repository.OrderItemRepository;
+import org.pharmacy.api.repository.SalesRollupChangeRepository;
+import org.pharmacy.api.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link SalesRollup} buckets in step with orders. Every status
+ * change is written as a {@link SalesRollupChange} row in the transaction
+ * that makes it, and applied write-behind: each flush looks up the pending
+ * orders' per-category totals in one grouped query, adds the resulting
+ * deltas to the buckets in JDBC batches and deletes the rows it applied, all
+ * in one transaction, so a change is applied exactly once and a restart
+ * loses nothing. Recent buckets are also rebuilt from the orders table on
+ * start and periodically, which repairs changes made without an event; a
+ * rebuild reaching back past the archive horizon reads the archive too.
+ * Time series are answered by summing hourly buckets, never by scanning
+ * orders.
+ */
+@Component
+public class SalesRollups {
+
+    private static final int MAX_FLUSH = 5000;
+    private static final int MAX_POINTS = 10000;
+    private static final String UNCATEGORIZED = "UNCATEGORIZED";
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesRollupChangeRepository salesRollupChangeRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderArchive orderArchive;
+    private final ProductCatalog productCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate rebuildTemplate;
+    private final Duration reconcileWindow;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private final AtomicLong reconciliations = new AtomicLong();
+
+    public SalesRollups(SalesRollupRepository salesRollupRepository,
+                        SalesRollupChangeRepository salesRollupChangeRepository,
+                        OrderItemRepository orderItemRepository,
+                        OrderArchive orderArchive,
+                        ProductCatalog productCatalog,
+                        JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${pharmacy.reports.rollup-reconcile-hours:48}") long reconcileHours) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.salesRollupChangeRepository = salesRollupChangeRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderArchive = orderArchive;
+        this.productCatalog = productCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.reconcileWindow = Duration.ofHours(reconcileHours);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!Objects.equals(event.getPreviousStatus(), event.getStatus())) {
+            salesRollupChangeRepository.save(
+                    new SalesRollupChange(event.getOrderId(), event.getPreviousStatus(), event.getStatus()));
+        }
+    }
+
+    /**
+     * Build every bucket from the orders table when there are none yet
+     * (e.g. on first start), otherwise rebuild the recent ones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        rebuild(salesRollupRepository.count() > 0 ? LocalDateTime.now().minus(reconcileWindow) : null);
+    }
+
+    @Scheduled(fixedDelayString = "${pharmacy.reports.rollup-reconcile-interval-ms:600000}",
+            initialDelayString = "${pharmacy.reports.rollup-reconcile-interval-ms:600000}")
+    public void reconcile() {
+        rebuild(LocalDateTime.now().minus(reconcileWindow));
+    }
+
+    /**
+     * Replace the buckets from the hour of {@code since} on (all of them when
+     * null) with totals scanned from the orders table, and drop the pending
+     * changes of the orders scanned. Changes are written with the orders they
+     * describe, so within one serializable transaction the scan reflects
+     * exactly the pending rows it sees; changes committed later stay pending
+     * and apply on top.
+     */
+    public synchronized void rebuild(LocalDateTime since) {
+        LocalDateTime from = since != null ? hourOf(since) : null;
+        rebuildTemplate.executeWithoutResult(status -> {
+            salesRollupChangeRepository.deleteByOrderCreatedFrom(from);
+            salesRollupRepository.deleteFrom(from);
+            Map<SalesRollup.Key, Delta> totals = new HashMap<>();
+            // Rows come ordered by order, so an order's first row is where it is counted once
+            long[] lastOrderId = {Long.MIN_VALUE};
+            Consumer<Object[]> count = row -> {
+                LocalDateTime hour = hourOf((LocalDateTime) row[1]);
+                Order.OrderStatus orderStatus = (Order.OrderStatus) row[2];
+                long units = ((Number) row[4]).longValue();
+                double revenue = ((Number) row[5]).doubleValue();
+                add(totals, hour, orderStatus, categoryOf(row[3]), 1, units, revenue);
+                long orderId = (Long) row[0];
+                add(totals, hour, orderStatus, SalesRollup.ALL_CATEGORIES,
+                        orderId != lastOrderId[0] ? 1 : 0, units, revenue);
+                lastOrderId[0] = orderId;
+            };
+            try (Stream<OrderArchive.Lines> orders = orderArchive.streamLines(null, from, null)) {
+                orders.forEach(order -> archivedSumsByCategory(order).forEach(count));
+            }
+            try (Stream<Object[]> rows = orderItemRepository.streamSumsByOrderAndCategory(from)) {
+                rows.forEach(count);
+            }
+            write(totals);
+        });
+        reconciliations.incrementAndGet();
+    }
+
+    /**
+     * Apply pending status changes to the buckets, one batch per transaction.
+     */
+    @Scheduled(fixedDelayString = "${pharmacy.reports.rollup-flush-interval-ms:1000}")
+    public synchronized void flush() {
+        int applied;
+        do {
+            applied = transactionTemplate.execute(status -> applyBatch());
+        } while (applied == MAX_FLUSH);
+    }
+
+    private int applyBatch() {
+        List<SalesRollupChange> changes = salesRollupChangeRepository.findPending(PageRequest.of(0, MAX_FLUSH));
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> orderIds = new LinkedHashSet<>();
+        for (SalesRollupChange change : changes) {
+            orderIds.add(change.getOrderId());
+        }
+        Map<Long, List<Object[]>> breakdowns = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumByOrderAndCategory(orderIds)) {
+            breakdowns.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(row);
+        }
+
+        Map<SalesRollup.Key, Delta> deltas = new HashMap<>();
+        List<Long> ids = new ArrayList<>(changes.size());
+        for (SalesRollupChange change : changes) {
+            ids.add(change.getId());
+            List<Object[]> rows = breakdowns.getOrDefault(change.getOrderId(), List.of());
+            if (rows.isEmpty()) {
+                continue;
+            }
+            LocalDateTime hour = hourOf((LocalDateTime) rows.get(0)[1]);
+            long totalUnits = 0;
+            double totalRevenue = 0.0;
+            for (Object[] row : rows) {
+                long units = ((Number) row[4]).longValue();
+                double revenue = ((Number) row[5]).doubleValue();
+                move(deltas, hour, change, categoryOf(row[3]), units, revenue);
+                totalUnits += units;
+                totalRevenue += revenue;
+            }
+            move(deltas, hour, change, SalesRollup.ALL_CATEGORIES, totalUnits, totalRevenue);
+        }
+        write(deltas);
+        salesRollupChangeRepository.deleteByIdIn(ids);
+        flushes.incrementAndGet();
+        appliedChanges.addAndGet(changes.size());
+        return changes.size();
+    }
+
+    /**
+     * Orders, units and revenue per bucket from {@code from} (rounded down
+     * to the bucket) up to {@code to}, empty buckets included.
+     *
+     * @param status   only orders currently in this status, or null for all
+     * @param category only items in this product category, or null for all
+     */
+    public List<SalesTimeseriesPoint> getTimeseries(LocalDateTime from, LocalDateTime to, Granularity granularity,
+                                                    Order.OrderStatus status, String category) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("'from' must be before 'to'");
+        }
+        LocalDateTime start = granularity.bucketOf(from);
+        TreeMap<LocalDateTime, SalesTimeseriesPoint> points = new TreeMap<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = granularity.next(bucket)) {
+            if (points.size() >= MAX_POINTS) {
+                throw new RuntimeException("Range too large for " + granularity.name().toLowerCase()
+                        + " buckets, at most " + MAX_POINTS + " points");
+            }
+            points.put(bucket, new SalesTimeseriesPoint(bucket, 0L, 0L, 0.0));
+        }
+
+        flush();
+        String categoryKey = category != null && !category.isBlank() ? category : SalesRollup.ALL_CATEGORIES;
+        for (Object[] row : salesRollupRepository.sumByHour(start, to, categoryKey, status)) {
+            SalesTimeseriesPoint point = points.get(granularity.bucketOf((LocalDateTime) row[0]));
+            point.setOrders(point.getOrders() + ((Number) row[1]).longValue());
+            point.setUnits(point.getUnits() + ((Number) row[2]).longValue());
+            point.setRevenue(point.getRevenue() + ((Number) row[3]).doubleValue());
+        }
+        return new ArrayList<>(points.values());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingChanges", salesRollupChangeRepository.count());
+        stats.put("flushes", flushes.get());
+        stats.put("appliedChanges", appliedChanges.get());
+        stats.put("reconciliations", reconciliations.get());
+        return stats;
+    }
+
+    private static void move(Map<SalesRollup.Key, Delta> deltas, LocalDateTime hour, SalesRollupChange change,
+                             String category, long units, double revenue) {
+        if (change.getPreviousStatus() != null) {
+            add(deltas, hour, change.getPreviousStatus(), category, -1, -units, -revenue);
+        }
+        if (change.getStatus() != null) {
+            add(deltas, hour, change.getStatus(), category, 1, units, revenue);
+        }
+    }
+
+    private static void add(Map<SalesRollup.Key, Delta> deltas, LocalDateTime hour, Order.OrderStatus status,
+                            String category, long orders, long units, double revenue) {
+        Delta delta = deltas.computeIfAbsent(new SalesRollup.Key(hour, status, category), key -> new Delta());
+        delta.orders += orders;
+        delta.units += units;
+        delta.revenue += revenue;
+    }
+
+    /**
+     * Add the deltas to their buckets, creating the buckets that do not exist yet.
+     */
+    private void write(Map<SalesRollup.Key, Delta> deltas) {
+        List<SalesRollup.Key> keys = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (delta.orders != 0 || delta.units != 0 || Math.abs(delta.revenue) >= 0.005) {
+                keys.add(key);
+                updates.add(new Object[]{delta.orders, delta.units, delta.revenue,
+                        Timestamp.valueOf(key.getBucketStart()), key.getStatus().name(), key.getCategory()});
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(
+                    "UPDATE sales_rollups SET order_count = order_count + ?, units = units + ?, revenue = revenue + ? "
+                            + "WHERE bucket_start = ? AND status = ? AND category = ?", updates);
+            List<Object[]> inserts = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Object[] update = updates.get(i);
+                    inserts.add(new Object[]{update[3], update[4], update[5], update[0], update[1], update[2]});
+                }
+            }
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT INTO sales_rollups "
+                        + "(bucket_start, status, category, order_count, units, revenue) VALUES (?, ?, ?, ?, ?, ?)", inserts);
+            }
+        });
+    }
+
+    private static LocalDateTime hourOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // The archived order as streamSumsByOrderAndCategory rows, categorized as the catalog has its products now
+    private List<Object[]> archivedSumsByCategory(OrderArchive.Lines order) {
+        Map<String, Object[]> rows = new HashMap<>();
+        for (OrderArchive.ItemRow item : order.getItems()) {
+            String category = productCatalog.findById(item.getProductId()).map(Product::getCategory).orElse(null);
+            Object[] row = rows.computeIfAbsent(category, key -> new Object[]{
+                    order.getOrderId(), order.getCreatedAt(), order.getStatus(), key, 0L, 0.0});
+            row[4] = (Long) row[4] + item.getQuantity();
+            row[5] = (Double) row[5] + item.getSubtotal();
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    private static String categoryOf(Object category) {
+        return category != null ? category.toString() : UNCATEGORIZED;
+    }
+
+    private static final class Delta {
+        private long orders;
+        private long units;
+        private double revenue;
+    }
+
+    public enum Granularity {
+        HOUR, DAY, WEEK;
+
+        public static Granularity of(String granularity) {
+            try {
+                return valueOf(granularity.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid granularity: " + granularity);
+            }
+        }
+
+        LocalDateTime bucketOf(LocalDateTime time) {
+            switch (this) {
+                case HOUR:
+                    return time.truncatedTo(ChronoUnit.HOURS);
+                case DAY:
+                    return time.truncatedTo(ChronoUnit.DAYS);
+                default:
+                    return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            }
+        }
+
+        LocalDateTime next(LocalDateTime bucket) {
+            switch (this) {
+                case HOUR:
+                    return bucket.plus(Duration.ofHours(1));
+                case DAY:
+                    return bucket.plusDays(1);
+                default:
+                    return bucket.plusWeeks(1);
+            }
+        }
+    }
+}
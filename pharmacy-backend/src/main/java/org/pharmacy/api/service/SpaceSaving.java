@@ -0,0 +1,112 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-saving heavy hitters sketch over weighted items. It tracks at most
+ * {@code capacity} items; a new item takes over the smallest counter and
+ * inherits its count as possible overcount. Every item heavier than the
+ * largest count evicted so far is guaranteed to be tracked. Weight can be
+ * taken back off a tracked item (a retracted sale); for an untracked item
+ * there is nothing to take back, and its bound stays an upper bound. Not
+ * thread-safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private double evicted;
+    private final Map<Long, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(
+            Comparator.comparingDouble((Counter counter) -> counter.count).thenComparing(counter -> counter.item));
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(Long item, double weight) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += weight;
+            byCount.add(counter);
+            return;
+        }
+        double error = 0.0;
+        if (counters.size() >= capacity) {
+            Counter smallest = byCount.pollFirst();
+            counters.remove(smallest.item);
+            error = smallest.count;
+            evicted = Math.max(evicted, smallest.count);
+        }
+        counter = new Counter(item, error + weight, error);
+        counters.put(item, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Take {@code weight} back off {@code item}, if it is tracked. The count
+     * does not go below zero.
+     */
+    public void subtract(Long item, double weight) {
+        Counter counter = counters.get(item);
+        if (counter == null) {
+            return;
+        }
+        byCount.remove(counter);
+        counter.count = Math.max(0.0, counter.count - weight);
+        byCount.add(counter);
+    }
+
+    /**
+     * Upper bound on the count of any item that is not tracked. The
+     * smallest counter is not one once counts can go down, so this is the
+     * largest count ever evicted.
+     */
+    public double untrackedBound() {
+        return evicted;
+    }
+
+    public Counter get(Long item) {
+        return counters.get(item);
+    }
+
+    public List<Counter> counters() {
+        return new ArrayList<>(counters.values());
+    }
+
+    public static final class Counter {
+        private final Long item;
+        private double count;
+        private final double error;
+
+        private Counter(Long item, double count, double error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public Long getItem() {
+            return item;
+        }
+
+        public double getCount() {
+            return count;
+        }
+
+        // How much of the count may belong to items this counter replaced
+        public double getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.pharmacy.api.model.StockMovement;
+import org.pharmacy.api.repository.ProductRepository;
+import org.pharmacy.api.repository.StockMovementRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory authority for available stock. Each product has its own
+ * counter, so checkouts of different SKUs never contend and checkouts of
+ * the same SKU only race on a CAS instead of a row lock. Every change is
+ * also written as a {@link StockMovement} row in the transaction that makes
+ * it, an insert rather than an update of the hot product row. A scheduled
+ * flusher folds the movements into {@code products.stock_quantity} in
+ * batches, and counters are recovered as the column plus the movements
+ * still pending, so a crash loses nothing that was committed.
+ */
+@Component
+public class StockLedger {
+
+    private static final int FOLD_BATCH = 1000;
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductCatalog productCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    public StockLedger(ProductRepository productRepository,
+                       StockMovementRepository stockMovementRepository,
+                       ProductCatalog productCatalog,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.productCatalog = productCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        for (Object[] row : productRepository.findAllAvailableStock()) {
+            Number stock = (Number) row[1];
+            available.put((Long) row[0], new AtomicInteger(stock != null ? stock.intValue() : 0));
+        }
+    }
+
+    public int getAvailable(Long productId) {
+        return counter(productId).get();
+    }
+
+    /**
+     * Take stock for every product in {@code quantities}, all or nothing.
+     * The movements are written with the surrounding transaction, and the
+     * stock is returned if it rolls back.
+     *
+     * @param names product names for the error message
+     */
+    public void reserve(Map<Long, Integer> quantities, Map<Long, String> names) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!tryTake(counter(entry.getKey()), entry.getValue())) {
+                taken.forEach((id, quantity) -> counter(id).addAndGet(quantity));
+                throw new RuntimeException("Insufficient stock for product: " + names.get(entry.getKey()));
+            }
+            taken.put(entry.getKey(), entry.getValue());
+        }
+        onCompletion(taken, -1);
+    }
+
+    /**
+     * Add ({@code delta > 0}) or remove stock for one product, failing when
+     * it would go negative. Returns the new available quantity.
+     */
+    public int adjust(Long productId, int delta) {
+        AtomicInteger counter = counter(productId);
+        int result;
+        if (delta < 0) {
+            if (!tryTake(counter, -delta)) {
+                throw new RuntimeException("Insufficient stock");
+            }
+            result = counter.get();
+            onCompletion(Map.of(productId, -delta), -1);
+        } else {
+            result = counter.addAndGet(delta);
+            onCompletion(Map.of(productId, delta), 1);
+        }
+        return result;
+    }
+
+    /**
+     * Return stock (e.g. from a cancelled order). The movements are written
+     * with the transaction; the stock becomes available once it commits.
+     */
+    public void release(Map<Long, Integer> quantities) {
+        record(quantities, 1);
+        afterCommit(() -> quantities.forEach((id, quantity) -> {
+            counter(id).addAndGet(quantity);
+            publish(id);
+        }));
+    }
+
+    /**
+     * Set the available quantity outright (admin product edit). The counter
+     * is set now and the difference written as a movement, so orders
+     * committed around the edit still count; a rollback undoes it.
+     */
+    public void setAvailable(Long productId, int quantity) {
+        int delta = quantity - counter(productId).getAndSet(quantity);
+        if (delta != 0) {
+            onCompletion(Map.of(productId, Math.abs(delta)), delta < 0 ? -1 : 1);
+        }
+    }
+
+    /**
+     * Start tracking a product created with {@code quantity} units.
+     */
+    public void register(Long productId, int quantity) {
+        afterCommit(() -> {
+            available.putIfAbsent(productId, new AtomicInteger(quantity));
+            productCatalog.stockChanged(productId, available.get(productId).get());
+        });
+    }
+
+    public void forget(Long productId) {
+        stockMovementRepository.deleteByProductId(productId);
+        afterCommit(() -> available.remove(productId));
+    }
+
+    /**
+     * Fold pending movements into the products table, one batch per
+     * transaction: the summed deltas are applied and exactly the rows that
+     * were summed are deleted, so movements committed meanwhile wait for
+     * the next batch.
+     */
+    @Scheduled(fixedDelayString = "${pharmacy.stock.flush-interval-ms:500}")
+    @PreDestroy
+    public synchronized void flush() {
+        int folded;
+        do {
+            folded = transactionTemplate.execute(status -> foldBatch());
+        } while (folded == FOLD_BATCH);
+    }
+
+    private int foldBatch() {
+        List<Object[]> movements = stockMovementRepository.findPending(PageRequest.of(0, FOLD_BATCH));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(movements.size());
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (Object[] row : movements) {
+            ids.add((Long) row[0]);
+            deltas.merge((Long) row[1], ((Number) row[2]).intValue(), Integer::sum);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                batch.add(new Object[]{delta, now, id});
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE id = ?",
+                    batch);
+        }
+        stockMovementRepository.deleteByIdIn(ids);
+        flushes.incrementAndGet();
+        flushedRows.addAndGet(batch.size());
+        return movements.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedProducts", available.size());
+        stats.put("pendingMovements", stockMovementRepository.count());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedRows", flushedRows.get());
+        return stats;
+    }
+
+    private AtomicInteger counter(Long productId) {
+        return available.computeIfAbsent(productId, id -> {
+            Number stock = productRepository.findAvailableStockById(id);
+            if (stock == null) {
+                throw new RuntimeException("Product not found");
+            }
+            return new AtomicInteger(stock.intValue());
+        });
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void publish(Long productId) {
+        AtomicInteger counter = available.get(productId);
+        if (counter != null) {
+            productCatalog.stockChanged(productId, counter.get());
+        }
+    }
+
+    /**
+     * Write movements of {@code sign * quantity} with the current
+     * transaction, or on their own when there is none.
+     */
+    private void record(Map<Long, Integer> quantities, int sign) {
+        List<StockMovement> movements = new ArrayList<>(quantities.size());
+        quantities.forEach((id, quantity) -> {
+            if (quantity != 0) {
+                movements.add(new StockMovement(id, sign * quantity));
+            }
+        });
+        if (!movements.isEmpty()) {
+            stockMovementRepository.saveAll(movements);
+        }
+    }
+
+    /**
+     * Stock already moved by {@code sign * quantity}: write the movements
+     * with the transaction and put the stock back if it rolls back.
+     */
+    private void onCompletion(Map<Long, Integer> quantities, int sign) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                record(quantities, sign);
+            } catch (RuntimeException e) {
+                quantities.forEach((id, quantity) -> counter(id).addAndGet(-sign * quantity));
+                throw e;
+            }
+            quantities.keySet().forEach(this::publish);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    quantities.keySet().forEach(StockLedger.this::publish);
+                } else {
+                    quantities.forEach((id, quantity) -> counter(id).addAndGet(-sign * quantity));
+                }
+            }
+        });
+        record(quantities, sign);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -6,12 +6,15 @@
  */
 package org.pharmacy.api.service;
 
+import org.pharmacy.api.dto.CursorPage;
 import org.pharmacy.api.dto.SupportTicketRequest;
+import org.pharmacy.api.event.TicketStatusChangedEvent;
 import org.pharmacy.api.model.SupportTicket;
 import org.pharmacy.api.model.User;
 import org.pharmacy.api.repository.SupportTicketRepository;
 import org.pharmacy.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -23,6 +26,7 @@ public class SupportService {
 
     private final SupportTicketRepository supportTicketRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public SupportTicket createTicket(SupportTicketRequest request, String userEmail) {
@@ -43,7 +47,9 @@ public class SupportService {
             }
         }
 
-        return supportTicketRepository.save(ticket);
+        ticket = supportTicketRepository.save(ticket);
+        eventPublisher.publishEvent(new TicketStatusChangedEvent(ticket.getId(), null, SupportTicket.TicketStatus.OPEN));
+        return ticket;
     }
 
     @Transactional(readOnly = true)
@@ -64,14 +70,25 @@ public class SupportService {
         return supportTicketRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<SupportTicket> getTicketPage(Long cursor, Integer size) {
+        int pageSize = CursorPage.pageSize(size);
+        List<SupportTicket> tickets = supportTicketRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.after(cursor), CursorPage.limit(pageSize));
+        return CursorPage.of(tickets, pageSize, SupportTicket::getId);
+    }
+
     @Transactional
     public SupportTicket updateTicketStatus(Long id, String status) {
         SupportTicket ticket = getTicketById(id);
+        SupportTicket.TicketStatus previousStatus = ticket.getStatus();
 
         try {
             ticket.setStatus(SupportTicket.TicketStatus.valueOf(status.toUpperCase()));
             ticket.setUpdatedAt(LocalDateTime.now());
-            return supportTicketRepository.save(ticket);
+            ticket = supportTicketRepository.save(ticket);
+            eventPublisher.publishEvent(new TicketStatusChangedEvent(ticket.getId(), previousStatus, ticket.getStatus()));
+            return ticket;
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid status: " + status);
         }
@@ -80,10 +97,14 @@ public class SupportService {
     @Transactional
     public SupportTicket addResponse(Long id, String response) {
         SupportTicket ticket = getTicketById(id);
+        SupportTicket.TicketStatus previousStatus = ticket.getStatus();
         ticket.setResponse(response);
         ticket.setStatus(SupportTicket.TicketStatus.RESOLVED);
         ticket.setUpdatedAt(LocalDateTime.now());
-        return supportTicketRepository.save(ticket);
+        ticket = supportTicketRepository.save(ticket);
+        eventPublisher.publishEvent(new TicketStatusChangedEvent(
+                ticket.getId(), previousStatus, SupportTicket.TicketStatus.RESOLVED));
+        return ticket;
     }
 
     public String mockChatWithPharmacist(String message) {
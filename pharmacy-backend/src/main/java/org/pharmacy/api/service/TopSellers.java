@@ -0,0 +1,221 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import org.pharmacy.api.dto.TopSeller;
+import org.pharmacy.api.event.OrderPlacedEvent;
+import org.pharmacy.api.event.OrderStatusChangedEvent;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Best sellers of the last 24 hours, kept in memory. Every placed order is
+ * added to one slot per hour, each holding a {@link SpaceSaving} sketch of
+ * units and of revenue for all products and per category. A query merges
+ * the live slots, so memory is bounded by the sketch size and reads never
+ * touch the database. Figures are estimates within {@code maxError} of the
+ * true value, which is zero while the sketches have spare capacity.
+ * <p>
+ * Like the historical report, cancelled orders do not count: when an order
+ * of the last 24 hours is cancelled (or its checkout hold expires) its lines
+ * are read back and taken off the slot it was added to, and put back if it
+ * is ever moved out of CANCELLED.
+ */
+@Component
+public class TopSellers {
+
+    private static final int HOURS = 24;
+    private static final String ALL = "*";
+
+    private final ProductCatalog productCatalog;
+    private final OrderItemRepository orderItemRepository;
+    private final int sketchSize;
+    private final Slot[] slots = new Slot[HOURS];
+
+    public TopSellers(ProductCatalog productCatalog,
+                      OrderItemRepository orderItemRepository,
+                      @Value("${pharmacy.reports.top-sellers.sketch-size:200}") int sketchSize) {
+        this.productCatalog = productCatalog;
+        this.orderItemRepository = orderItemRepository;
+        this.sketchSize = sketchSize;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        long hour = epochHour(event.getPlacedAt());
+        if (hour <= epochHour(LocalDateTime.now()) - HOURS) {
+            return;
+        }
+        Slot slot = slots[(int) Math.floorMod(hour, (long) HOURS)];
+        if (slot == null || slot.hour != hour) {
+            // The slot still holds the same hour of an earlier day
+            slot = new Slot(hour);
+            slots[(int) Math.floorMod(hour, (long) HOURS)] = slot;
+        }
+        for (Map.Entry<Long, Integer> line : event.getQuantities().entrySet()) {
+            Long productId = line.getKey();
+            slot.add(productId, line.getValue(), event.getRevenue().getOrDefault(productId, 0.0), 1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean cancelled = event.getStatus() == Order.OrderStatus.CANCELLED;
+        boolean wasCancelled = event.getPreviousStatus() == Order.OrderStatus.CANCELLED;
+        if (cancelled == wasCancelled) {
+            return;
+        }
+        // Only orders still inside the window have anything in the slots
+        LocalDateTime since = LocalDateTime.ofEpochSecond((epochHour(LocalDateTime.now()) - HOURS + 1) * 3600L,
+                0, ZoneOffset.UTC);
+        List<Object[]> lines = orderItemRepository.sumByProductForOrderPlacedSince(event.getOrderId(), since);
+        if (lines.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            long hour = epochHour((LocalDateTime) lines.get(0)[3]);
+            Slot slot = slots[(int) Math.floorMod(hour, (long) HOURS)];
+            if (slot == null || slot.hour != hour) {
+                // The hour has slid out of the window meanwhile
+                return;
+            }
+            for (Object[] line : lines) {
+                slot.add((Long) line[0], ((Number) line[1]).intValue(), ((Number) line[2]).doubleValue(),
+                        cancelled ? -1 : 1);
+            }
+        }
+    }
+
+    /**
+     * Top products of the last 24 hours.
+     *
+     * @param byRevenue rank by revenue instead of units
+     * @param category  only products of this category, or null for all
+     */
+    public synchronized List<TopSeller> getTop(boolean byRevenue, String category, int limit) {
+        String key = category != null && !category.isBlank() ? category : ALL;
+        long oldest = epochHour(LocalDateTime.now()) - HOURS;
+        List<Slot> live = new ArrayList<>();
+        for (Slot slot : slots) {
+            if (slot != null && slot.hour > oldest) {
+                live.add(slot);
+            }
+        }
+
+        // Every product tracked for the ranked figure in any live slot is a candidate
+        Map<Long, double[]> ranked = new HashMap<>();
+        for (Slot slot : live) {
+            SpaceSaving sketch = slot.sketch(byRevenue, key);
+            if (sketch != null) {
+                for (SpaceSaving.Counter counter : sketch.counters()) {
+                    ranked.putIfAbsent(counter.getItem(), new double[2]);
+                }
+            }
+        }
+        for (Map.Entry<Long, double[]> candidate : ranked.entrySet()) {
+            double[] estimate = candidate.getValue();
+            for (Slot slot : live) {
+                SpaceSaving sketch = slot.sketch(byRevenue, key);
+                if (sketch == null) {
+                    continue;
+                }
+                SpaceSaving.Counter counter = sketch.get(candidate.getKey());
+                if (counter != null) {
+                    estimate[0] += counter.getCount();
+                    estimate[1] += counter.getError();
+                } else {
+                    // Not tracked in this hour, so it sold at most the smallest tracked count there
+                    estimate[1] += sketch.untrackedBound();
+                }
+            }
+        }
+
+        List<Map.Entry<Long, double[]>> top = new ArrayList<>(ranked.entrySet());
+        top.sort(Comparator.comparingDouble((Map.Entry<Long, double[]> entry) -> -entry.getValue()[0])
+                .thenComparing(Map.Entry::getKey));
+
+        List<TopSeller> sellers = new ArrayList<>(Math.min(limit, top.size()));
+        for (Map.Entry<Long, double[]> entry : top.subList(0, Math.min(limit, top.size()))) {
+            Long productId = entry.getKey();
+            Double other = otherFigure(live, !byRevenue, key, productId);
+            Optional<Product> product = productCatalog.findById(productId);
+            double value = entry.getValue()[0];
+            Long units = byRevenue
+                    ? (other != null ? Long.valueOf(Math.round(other)) : null)
+                    : Long.valueOf(Math.round(value));
+            Double revenue = byRevenue ? Double.valueOf(value) : other;
+            sellers.add(new TopSeller(productId, product.map(Product::getName).orElse(null),
+                    product.map(Product::getCategory).orElse(null), units, revenue, entry.getValue()[1]));
+        }
+        return sellers;
+    }
+
+    // Sum of the figure the ranking did not use, from the slots that track the product for it
+    private static Double otherFigure(List<Slot> live, boolean byRevenue, String key, Long productId) {
+        Double total = null;
+        for (Slot slot : live) {
+            SpaceSaving sketch = slot.sketch(byRevenue, key);
+            SpaceSaving.Counter counter = sketch != null ? sketch.get(productId) : null;
+            if (counter != null) {
+                total = (total != null ? total : 0.0) + counter.getCount();
+            }
+        }
+        return total;
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+    }
+
+    private final class Slot {
+        private final long hour;
+        private final Map<String, SpaceSaving> units = new HashMap<>();
+        private final Map<String, SpaceSaving> revenue = new HashMap<>();
+
+        private Slot(long hour) {
+            this.hour = hour;
+        }
+
+        // sign -1 takes a cancelled order's line back off
+        private void add(Long productId, int quantity, double amount, int sign) {
+            String category = productCatalog.findById(productId).map(Product::getCategory).orElse(null);
+            add(ALL, productId, quantity, amount, sign);
+            if (category != null) {
+                add(category, productId, quantity, amount, sign);
+            }
+        }
+
+        private void add(String key, Long productId, int quantity, double amount, int sign) {
+            SpaceSaving unitSketch = units.computeIfAbsent(key, k -> new SpaceSaving(sketchSize));
+            SpaceSaving revenueSketch = revenue.computeIfAbsent(key, k -> new SpaceSaving(sketchSize));
+            if (sign > 0) {
+                unitSketch.add(productId, quantity);
+                revenueSketch.add(productId, amount);
+            } else {
+                unitSketch.subtract(productId, quantity);
+                revenueSketch.subtract(productId, amount);
+            }
+        }
+
+        private SpaceSaving sketch(boolean byRevenue, String key) {
+            return (byRevenue ? revenue : units).get(key);
+        }
+    }
+}
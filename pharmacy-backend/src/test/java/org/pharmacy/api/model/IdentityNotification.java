@@ -0,0 +1,44 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Test-only copy of {@link Notification} keyed by an IDENTITY column, the
+ * mapping the entities had before pooled sequences, so batching can be
+ * measured against the real thing.
+ */
+@Entity
+@Table(name = "identity_notifications")
+@Data
+@NoArgsConstructor
+public class IdentityNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    private String title;
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    private Notification.NotificationType type;
+
+    @Column(name = "is_read")
+    private Boolean read = false;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,206 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pharmacy.api.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The sales, inventory and users reports against rows seeded straight into
+ * the tables: each report is one aggregate statement and its totals move
+ * by exactly what was seeded.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class AnalyticsReportTest {
+
+    private static final int SEEDED = 3000;
+    private static final AtomicLong SEED_BLOCK = new AtomicLong();
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User customer;
+
+    @BeforeEach
+    void createCustomer() {
+        customer = fixtures.user("Report Customer");
+    }
+
+    @Test
+    void salesReportCountsSeededOrders() {
+        Map<String, Object> before = report(analyticsService::getSalesReport);
+        seedOrders(SEEDED);
+        Map<String, Object> after = report(analyticsService::getSalesReport);
+
+        // A third of the seeded orders are delivered at 10.00, a third pending, a third cancelled
+        assertEquals(SEEDED / 3, difference(after, before, "totalOrders"));
+        assertEquals(SEEDED / 3, difference(after, before, "pendingOrders"));
+        assertEquals(10.0 * SEEDED / 3, (Double) after.get("totalRevenue") - (Double) before.get("totalRevenue"), 0.01);
+    }
+
+    @Test
+    void inventoryReportCountsSeededProducts() {
+        Map<String, Object> before = report(analyticsService::getInventoryReport);
+        seedProducts(SEEDED);
+        Map<String, Object> after = report(analyticsService::getInventoryReport);
+
+        // A quarter out of stock, a quarter at 5 (under the reorder level of 10), half at 100, all at 2.00
+        assertEquals(SEEDED, difference(after, before, "totalProducts"));
+        assertEquals(SEEDED / 4, difference(after, before, "outOfStock"));
+        assertEquals(SEEDED / 4, difference(after, before, "lowStock"));
+        assertEquals(2.0 * (5 * SEEDED / 4 + 100 * SEEDED / 2),
+                (Double) after.get("totalInventoryValue") - (Double) before.get("totalInventoryValue"), 0.01);
+    }
+
+    @Test
+    void inventoryReportCountsPendingStockMovements() {
+        Map<String, Object> before = report(analyticsService::getInventoryReport);
+        long base = seedProducts(SEEDED);
+        // Sell out the products at 5 with movements not yet folded into the stock column
+        jdbcTemplate.update("INSERT INTO stock_movements (id, product_id, delta, created_at) "
+                        + "SELECT CAST(? AS BIGINT) + X, CAST(? AS BIGINT) + X, -5, CURRENT_TIMESTAMP "
+                        + "FROM SYSTEM_RANGE(1, ?) WHERE MOD(X, 4) = 1",
+                idBase(), base, SEEDED);
+        Map<String, Object> after = report(analyticsService::getInventoryReport);
+
+        assertEquals(SEEDED, difference(after, before, "totalProducts"));
+        assertEquals(SEEDED / 2, difference(after, before, "outOfStock"));
+        assertEquals(0, difference(after, before, "lowStock"));
+        assertEquals(2.0 * 100 * SEEDED / 2,
+                (Double) after.get("totalInventoryValue") - (Double) before.get("totalInventoryValue"), 0.01);
+    }
+
+    @Test
+    void usersReportCountsSeededUsers() {
+        Map<String, Object> before = report(analyticsService::getUsersReport);
+        seedUsers(SEEDED);
+        Map<String, Object> after = report(analyticsService::getUsersReport);
+
+        assertEquals(SEEDED, difference(after, before, "totalUsers"));
+        assertEquals(SEEDED / 3, difference(after, before, "customers"));
+        assertEquals(SEEDED / 3, difference(after, before, "pharmacists"));
+        assertEquals(SEEDED / 3, difference(after, before, "admins"));
+        assertEquals(SEEDED, difference(after, before, "newUsersLast30Days"));
+    }
+
+    /**
+     * Time, statements and heap allocated per report over a large seeded
+     * dataset. Run with {@code -Dbenchmarks=true}, and size it with
+     * {@code -Dbenchmark.orders} (default 2,000,000; products and users are
+     * a tenth of that).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void reportsOverSeededDataset() {
+        int orders = Integer.getInteger("benchmark.orders", 2_000_000);
+        long started = System.nanoTime();
+        seedOrders(orders);
+        seedProducts(orders / 10);
+        seedUsers(orders / 10);
+        log.info(String.format("Seeded %d orders, %d products and %d users in %.1f s",
+                orders, orders / 10, orders / 10, (System.nanoTime() - started) / 1e9));
+
+        benchmark("sales", analyticsService::getSalesReport);
+        benchmark("inventory", analyticsService::getInventoryReport);
+        benchmark("users", analyticsService::getUsersReport);
+    }
+
+    private void benchmark(String name, Supplier<Map<String, Object>> report) {
+        int runs = 5;
+        report.get();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long started = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            report.get();
+        }
+        double meanMillis = (System.nanoTime() - started) / 1e6 / runs;
+        long allocated = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / runs;
+        double statements = (double) statistics.getPrepareStatementCount() / runs;
+        log.info(String.format("%s report: %.1f ms, %.0f statements, %d KB allocated",
+                name, meanMillis, statements, allocated / 1024));
+        // One aggregate statement per report however large the tables are
+        assertEquals(1.0, statements, name + " report");
+    }
+
+    private Map<String, Object> report(Supplier<Map<String, Object>> report) {
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        Map<String, Object> result = report.get();
+        assertEquals(1, statistics.getPrepareStatementCount(), statistics.toString());
+        return result;
+    }
+
+    private static long difference(Map<String, Object> after, Map<String, Object> before, String key) {
+        return ((Number) after.get(key)).longValue() - ((Number) before.get(key)).longValue();
+    }
+
+    // Seeded ids start far above what the sequences hand out, one block per seeding
+    private static long idBase() {
+        return (SEED_BLOCK.incrementAndGet() + 1000) * 100_000_000L;
+    }
+
+    private void seedOrders(int count) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, status, total_amount, shipping_address, payment_method, "
+                        + "created_at, updated_at, version) "
+                        + "SELECT CAST(? AS BIGINT) + X, CAST(? AS BIGINT), "
+                        + "CASE MOD(X, 3) WHEN 0 THEN 'DELIVERED' WHEN 1 THEN 'PENDING' ELSE 'CANCELLED' END, "
+                        + "10.0, 'Seed Street', 'CASH', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                idBase(), customer.getId(), count);
+    }
+
+    // Returns the id base, so product X of the block has id base + X
+    private long seedProducts(int count) {
+        long base = idBase();
+        jdbcTemplate.update("INSERT INTO products (id, name, price, category, prescription_required, stock_quantity, "
+                        + "reorder_level, created_at, updated_at, version) "
+                        + "SELECT CAST(? AS BIGINT) + X, 'Seed product ' || X, 2.0, 'Seed', FALSE, "
+                        + "CASE MOD(X, 4) WHEN 0 THEN 0 WHEN 1 THEN 5 ELSE 100 END, "
+                        + "10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                base, count);
+        return base;
+    }
+
+    private void seedUsers(int count) {
+        long base = idBase();
+        jdbcTemplate.update("INSERT INTO users (id, email, password, full_name, role, created_at, updated_at) "
+                        + "SELECT CAST(? AS BIGINT) + X, 'seed-' || (CAST(? AS BIGINT) + X) || '@example.com', "
+                        + "'secret', 'Seed User', "
+                        + "CASE MOD(X, 3) WHEN 0 THEN 'CUSTOMER' WHEN 1 THEN 'PHARMACIST' ELSE 'ADMIN' END, "
+                        + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                base, base, count);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.model.IdentityNotification;
+import org.pharmacy.api.model.Notification;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pooled sequence ids let Hibernate send inserts in JDBC batches, which
+ * {@code GenerationType.IDENTITY} rules out: the id only exists once the
+ * row is inserted, so every row is its own statement. The fan-out is
+ * compared with {@link IdentityNotification}, a test-only IDENTITY copy of
+ * the notification mapping.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchInsertTest {
+
+    private static final int FAN_OUT = 500;
+    private static final int LINES = 30;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private User user;
+    private List<Product> products;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate = fixtures.transactionTemplate();
+        user = fixtures.user("Batch Insert");
+        products = fixtures.products("Batch product", LINES, 1.0, 1_000_000);
+    }
+
+    @Test
+    void notificationFanOutIsBatched() {
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        List<Notification> saved = notificationService.createNotifications(notifications(FAN_OUT));
+
+        assertEquals(FAN_OUT, saved.size());
+        // 10 insert batches of 50 and at most one sequence call per 50 ids
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 2 * (FAN_OUT / 50) + 2, statements + " statements for " + FAN_OUT + " rows");
+    }
+
+    @Test
+    void identityFanOutIsOneStatementPerRow() {
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        insertWithIdentity(FAN_OUT);
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements >= FAN_OUT, statements + " statements for " + FAN_OUT + " rows");
+    }
+
+    /**
+     * Mean time and statements for a 500-notification fan-out with pooled
+     * sequence ids against the IDENTITY mapping, and for a 30-line order
+     * batched against one row per statement. There is no IDENTITY copy of
+     * the order graph, so for the order one row per statement is forced
+     * with a session batch size of 1: the same statements IDENTITY would
+     * send, but without its per-row id read back. Run with
+     * {@code -Dbenchmarks=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void batchedAgainstRowAtATime() {
+        int rounds = 50;
+        // Warm up counters, id pools and the JIT
+        fixtures.measure(20, () -> notificationService.createNotifications(notifications(FAN_OUT)));
+        fixtures.measure(20, () -> insertWithIdentity(FAN_OUT));
+        fixtures.measure(20, () -> createOrder(null));
+
+        TestFixtures.Measurement sequence = fixtures.measure(rounds,
+                () -> notificationService.createNotifications(notifications(FAN_OUT)));
+        TestFixtures.Measurement identity = fixtures.measure(rounds, () -> insertWithIdentity(FAN_OUT));
+        log.info(String.format("fan-out of %d: pooled sequence %.2f ms (%.0f statements), IDENTITY %.2f ms (%.0f statements)",
+                FAN_OUT, sequence.millis, sequence.statements, identity.millis, identity.statements));
+
+        TestFixtures.Measurement batched = fixtures.measure(rounds, () -> createOrder(null));
+        TestFixtures.Measurement rowAtATime = fixtures.measure(rounds, () -> createOrder(1));
+        log.info(String.format("%d-line order: batched %.2f ms (%.0f statements), one row per statement %.2f ms (%.0f statements)",
+                LINES, batched.millis, batched.statements, rowAtATime.millis, rowAtATime.statements));
+
+        assertTrue(sequence.statements < identity.statements);
+        assertTrue(batched.statements < rowAtATime.statements);
+    }
+
+    private void insertWithIdentity(int count) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = entityManager.getReference(User.class, user.getId());
+            for (int i = 0; i < count; i++) {
+                IdentityNotification notification = new IdentityNotification();
+                notification.setUser(owner);
+                notification.setTitle("Fan-out");
+                notification.setMessage("Notification " + i);
+                notification.setType(Notification.NotificationType.ORDER_UPDATE);
+                entityManager.persist(notification);
+            }
+        });
+    }
+
+    private void createOrder(Integer batchSize) {
+        transactionTemplate.executeWithoutResult(status -> {
+            withBatchSize(batchSize);
+            orderService.createOrder(order());
+        });
+    }
+
+    // Null keeps the configured hibernate.jdbc.batch_size for this transaction's session
+    private void withBatchSize(Integer batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+    }
+
+    private List<Notification> notifications(int count) {
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Notification notification = new Notification();
+            notification.setUser(user);
+            notification.setTitle("Fan-out");
+            notification.setMessage("Notification " + i);
+            notification.setType(Notification.NotificationType.ORDER_UPDATE);
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+
+    private OrderRequest order() {
+        return fixtures.order(user, products, 1);
+    }
+}
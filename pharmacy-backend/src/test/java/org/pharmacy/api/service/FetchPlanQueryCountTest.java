@@ -0,0 +1,147 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pharmacy.api.dto.PaymentRequest;
+import org.pharmacy.api.dto.ReviewRequest;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.Payment;
+import org.pharmacy.api.model.Prescription;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Statements issued per read endpoint, response serialization included.
+ * Every association is lazy and each endpoint opts into an entity graph or
+ * a projection, so the counts stay fixed however many rows come back; a
+ * lazy association touched while serializing fails the test outright,
+ * since open-in-view is off.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FetchPlanQueryCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User customer;
+    private Product product;
+    private final List<Order> orders = new ArrayList<>();
+    private final List<Payment> payments = new ArrayList<>();
+    private final List<Prescription> prescriptions = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        customer = fixtures.user("Fetch Plan");
+        List<Product> products = fixtures.products("Fetch plan product", ROWS, 4.0, 100);
+        product = products.get(0);
+
+        String year = String.valueOf(LocalDate.now().getYear() + 2);
+        for (int i = 0; i < ROWS; i++) {
+            Order order = orderService.createOrder(fixtures.order(customer, products, 1));
+            orders.add(order);
+            payments.add(paymentService.initiatePayment(paymentFor(order, year)));
+            prescriptions.add(prescriptionService.uploadPrescription(customer.getId(), "rx.pdf",
+                    "application/pdf", "Dr. Test", null));
+            reviewService.createReview(new ReviewRequest(product.getId(), 5, "Fine"), customer.getEmail());
+        }
+    }
+
+    @Test
+    void orderDetailIsOneStatement() {
+        assertStatements(1, () -> orderService.getOrderById(orders.get(0).getId()));
+    }
+
+    @Test
+    void orderListsAreProjections() {
+        // user check, archived summaries, live summaries
+        assertStatements(3, () -> orderService.getUserOrders(customer.getId()));
+        assertStatements(1, () -> orderService.getOrderPage(null, 20));
+    }
+
+    @Test
+    void paymentsComeWithTheirOrders() {
+        assertStatements(1, () -> paymentService.getPaymentById(payments.get(0).getId()));
+        // user check, archived payments, live payments
+        assertStatements(3, () -> paymentService.getPaymentHistory(customer.getId()));
+    }
+
+    @Test
+    void notificationsComeWithTheirUser() {
+        assertStatements(2, () -> notificationService.getUserNotifications(customer.getId()));
+        assertStatements(2, () -> notificationService.getUserNotificationPage(customer.getId(), null, 20));
+    }
+
+    @Test
+    void prescriptionsComeWithTheirUsers() {
+        assertStatements(1, () -> prescriptionService.getPrescriptionById(prescriptions.get(0).getId()));
+        assertStatements(2, () -> prescriptionService.getUserPrescriptions(customer.getId()));
+    }
+
+    @Test
+    void reviewsComeWithProductAndUser() {
+        assertStatements(1, () -> reviewService.getProductReviews(product.getId()));
+    }
+
+    private PaymentRequest paymentFor(Order order, String year) {
+        PaymentRequest request = new PaymentRequest();
+        request.setOrderId(order.getId());
+        request.setUserId(customer.getId());
+        request.setCardNumber("4111111111111111");
+        request.setCardHolderName("Fetch Plan");
+        request.setExpiryMonth("12");
+        request.setExpiryYear(year);
+        request.setCvv("123");
+        return request;
+    }
+
+    private void assertStatements(long expected, Supplier<Object> endpoint) {
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        Object response = endpoint.get();
+        try {
+            objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            throw new AssertionError("Response could not be serialized", e);
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount(), statistics.toString());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.model.Order;
+import org.pharmacy.api.model.OrderItem;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.OrderRepository;
+import org.pharmacy.api.repository.ProductRepository;
+import org.pharmacy.api.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Order creation cost against basket size. Products are loaded in one
+ * query and items and stock movements are inserted in JDBC batches, so the
+ * statements per order do not grow with the number of lines.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderBasketSizeTest {
+
+    private static final int MAX_LINES = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+    private User buyer;
+    private List<Product> products;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate = fixtures.transactionTemplate();
+        buyer = fixtures.user("Basket Buyer");
+        products = fixtures.products("Basket product", MAX_LINES, 1.0, 1_000_000);
+        // Warm the stock ledger counters and id pools so the first order is not special
+        orderService.createOrder(basket(MAX_LINES));
+    }
+
+    @Test
+    void statementsDoNotGrowWithBasketSize() {
+        long single = statements(1);
+        long thirty = statements(30);
+        // Sequence pools may be topped up once more for the bigger basket
+        assertTrue(thirty <= single + 2, "1 line: " + single + " statements, 30 lines: " + thirty);
+    }
+
+    /**
+     * Mean latency and statements per order for growing baskets, through
+     * the service and through a per-line baseline that looks up and saves
+     * each line's product on its own, as order creation did before the
+     * products were loaded in one query. Run with {@code -Dbenchmarks=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void latencyByBasketSize() {
+        int orders = 200;
+        for (int lines : new int[]{1, 5, 10, 20, 30, 50}) {
+            TestFixtures.Measurement batched = fixtures.measure(orders, () -> orderService.createOrder(basket(lines)));
+            TestFixtures.Measurement perLine = fixtures.measure(orders, () -> createOrderPerLine(lines));
+            log.info(String.format("%2d lines: service %.2f ms/order, %.1f statements/order; "
+                            + "per line %.2f ms/order, %.1f statements/order",
+                    lines, batched.millis, batched.statements, perLine.millis, perLine.statements));
+            assertTrue(batched.statements <= perLine.statements,
+                    lines + " lines: " + batched.statements + " statements against " + perLine.statements);
+        }
+    }
+
+    // One findById and one save per line, the way the service worked before this change
+    private void createOrderPerLine(int lines) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = new Order();
+            order.setUser(userRepository.findById(buyer.getId()).orElseThrow());
+            order.setShippingAddress("1 Test Street");
+            order.setPaymentMethod("CASH");
+            order.setStatus(Order.OrderStatus.PENDING);
+            double total = 0.0;
+            for (int i = 0; i < lines; i++) {
+                Product product = productRepository.findById(products.get(i).getId()).orElseThrow();
+                product.setStockQuantity(product.getStockQuantity() - 1);
+                productRepository.save(product);
+
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setPrice(product.getPrice());
+                item.setSubtotal(product.getPrice());
+                order.getItems().add(item);
+                total += item.getSubtotal();
+            }
+            order.setTotalAmount(total);
+            orderRepository.save(order);
+        });
+    }
+
+    private long statements(int lines) {
+        Statistics statistics = fixtures.statistics();
+        statistics.clear();
+        orderService.createOrder(basket(lines));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private OrderRequest basket(int lines) {
+        return fixtures.order(buyer, products.subList(0, lines), 1);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.pharmacy.api.dto.OrderItemRequest;
+import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent checkouts against the stock ledger, and against the
+ * conditional SQL decrement it replaced: many buyers of the same SKU must
+ * never take more than there is.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int BUYERS = 200;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private TransactionTemplate transactionTemplate;
+    private User buyer;
+
+    @BeforeEach
+    void createBuyer() {
+        transactionTemplate = fixtures.transactionTemplate();
+        buyer = fixtures.user("Concurrent Buyer");
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = createProduct(STOCK);
+
+        AtomicInteger rejected = new AtomicInteger();
+        List<Boolean> results = runConcurrently(BUYERS, BUYERS, () -> {
+            try {
+                orderService.createOrder(orderFor(product, 1));
+                return true;
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().startsWith("Insufficient stock"), e.getMessage());
+                rejected.incrementAndGet();
+                return false;
+            }
+        });
+
+        long placed = results.stream().filter(Boolean::booleanValue).count();
+        assertEquals(STOCK, placed);
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(0, stockLedger.getAvailable(product.getId()));
+
+        stockLedger.flush();
+        Product stored = productRepository.findById(product.getId()).orElseThrow();
+        assertEquals(0, stored.getStockQuantity());
+        assertEquals(0, productRepository.findAvailableStockById(product.getId()).intValue());
+    }
+
+    @Test
+    void failedItemReturnsTheStockAlreadyTaken() {
+        Product plenty = createProduct(10);
+        Product scarce = createProduct(1);
+
+        OrderRequest request = orderFor(plenty, 3);
+        request.getItems().add(new OrderItemRequest(scarce.getId(), 2));
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> orderService.createOrder(request));
+
+        assertTrue(error.getMessage().startsWith("Insufficient stock"));
+        assertEquals(10, stockLedger.getAvailable(plenty.getId()));
+        assertEquals(1, stockLedger.getAvailable(scarce.getId()));
+    }
+
+    /**
+     * The conditional decrement the ledger replaced, run on its own: one
+     * statement that checks and takes the stock, so the row lock makes
+     * concurrent buyers of one SKU queue rather than oversell.
+     */
+    @Test
+    void conditionalDecrementNeverOversells() throws Exception {
+        Product product = createProduct(STOCK);
+
+        List<Boolean> results = runConcurrently(BUYERS, BUYERS,
+                () -> takeStock(StockStep.CONDITIONAL_UPDATE, product.getId()));
+
+        assertEquals(STOCK, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, product.getId()));
+    }
+
+    /**
+     * 64 buyers taking one unit at a time from the same SKU, once per way
+     * the stock step has been written: reading the stock and saving it back
+     * (before the conditional decrement), the conditional decrement, and
+     * the ledger that replaced it. Each order is a transaction doing only
+     * the stock step. Run with {@code -Dbenchmarks=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void stockStepWithSixtyFourBuyers() throws Exception {
+        int buyers = 64;
+        int ordersPerBuyer = 50;
+        int stock = buyers * ordersPerBuyer;
+
+        for (StockStep step : StockStep.values()) {
+            Product product = createProduct(stock);
+            stockLedger.getAvailable(product.getId());
+            long started = System.nanoTime();
+            List<Integer> taken = runConcurrently(buyers, buyers, () -> {
+                int units = 0;
+                for (int i = 0; i < ordersPerBuyer; i++) {
+                    units += takeStock(step, product.getId()) ? 1 : 0;
+                }
+                return units;
+            });
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            int sold = taken.stream().mapToInt(Integer::intValue).sum();
+            int left = step == StockStep.LEDGER
+                    ? stockLedger.getAvailable(product.getId())
+                    : jdbcTemplate.queryForObject(
+                            "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, product.getId());
+            // Units handed out beyond what the stock went down by
+            int oversold = sold - (stock - left);
+            log.info("{} buyers x {} orders, {}: {} orders/s, {} units oversold",
+                    buyers, ordersPerBuyer, step, Math.round(buyers * ordersPerBuyer / seconds), oversold);
+            if (step != StockStep.READ_THEN_WRITE) {
+                assertEquals(0, oversold);
+                assertEquals(stock, sold);
+            }
+        }
+    }
+
+    private boolean takeStock(StockStep step, Long productId) {
+        return transactionTemplate.execute(status -> switch (step) {
+            case READ_THEN_WRITE -> {
+                Integer current = jdbcTemplate.queryForObject(
+                        "SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+                if (current < 1) {
+                    yield false;
+                }
+                jdbcTemplate.update("UPDATE products SET stock_quantity = ? WHERE id = ?", current - 1, productId);
+                yield true;
+            }
+            case CONDITIONAL_UPDATE -> jdbcTemplate.update(
+                    "UPDATE products SET stock_quantity = stock_quantity - 1 WHERE id = ? AND stock_quantity >= 1",
+                    productId) == 1;
+            case LEDGER -> {
+                try {
+                    stockLedger.reserve(Map.of(productId, 1), Map.of(productId, "Contended"));
+                    yield true;
+                } catch (RuntimeException e) {
+                    yield false;
+                }
+            }
+        });
+    }
+
+    private enum StockStep {
+        READ_THEN_WRITE, CONDITIONAL_UPDATE, LEDGER
+    }
+
+    private <T> List<T> runConcurrently(int threads, int tasks, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Product createProduct(int stock) {
+        return fixtures.product("Contended", 2.50, stock);
+    }
+
+    private OrderRequest orderFor(Product product, int quantity) {
+        return fixtures.order(buyer, List.of(product), quantity);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Author: Shady Ahmed
+ * Date: 2025-09-27
+ * Project: Delta Pharmacy API
+ * My Linked-in: https://www.linkedin.com/in/shady-ahmed97/.
+ */
+package org.pharmacy.api.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.pharmacy.api.dto.OrderItemRequest;
+import org.pharmacy.api.dto.OrderRequest;
+import org.pharmacy.api.model.Product;
+import org.pharmacy.api.model.User;
+import org.pharmacy.api.repository.ProductRepository;
+import org.pharmacy.api.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Users, products, orders and statement counting shared by the service
+ * tests. Every user and product gets a random suffix, so tests sharing the
+ * context never collide.
+ */
+@Component
+@RequiredArgsConstructor
+class TestFixtures {
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final PlatformTransactionManager transactionManager;
+
+    User user(String fullName) {
+        User user = new User();
+        user.setEmail(fullName.toLowerCase().replace(' ', '-') + "-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("secret");
+        user.setFullName(fullName);
+        return userRepository.save(user);
+    }
+
+    Product product(String name, double price, int stock) {
+        Product product = new Product();
+        product.setName(name + " " + UUID.randomUUID());
+        product.setPrice(price);
+        product.setCategory("Test");
+        product.setStockQuantity(stock);
+        return productRepository.save(product);
+    }
+
+    // Priced firstPrice, firstPrice + 1, ...
+    List<Product> products(String name, int count, double firstPrice, int stock) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(name, firstPrice + i, stock));
+        }
+        return products;
+    }
+
+    // Cash order for quantity of each product; the items list is mutable
+    OrderRequest order(User buyer, List<Product> products, int quantity) {
+        List<OrderItemRequest> items = new ArrayList<>(products.size());
+        for (Product product : products) {
+            items.add(new OrderItemRequest(product.getId(), quantity));
+        }
+        return new OrderRequest(buyer.getId(), items, "1 Test Street", "CASH", null);
+    }
+
+    TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Mean time and prepared statements over rounds runs of work
+    Measurement measure(int rounds, Runnable work) {
+        Statistics statistics = statistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            work.run();
+        }
+        return new Measurement((System.nanoTime() - started) / 1e6 / rounds,
+                (double) statistics.getPrepareStatementCount() / rounds);
+    }
+
+    record Measurement(double millis, double statements) {
+    }
+}
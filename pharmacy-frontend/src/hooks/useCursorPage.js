@@ -0,0 +1,40 @@
+// FILE: src/hooks/useCursorPage.js
+import { useState, useCallback } from 'react';
+import ApiService from '../services/api.service';
+
+// Keyset paging over a list endpoint that answers with { items, nextCursor, hasMore }
+export const useCursorPage = (url, setItems, size = 20) => {
+  const [nextCursor, setNextCursor] = useState(null);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const applyPage = useCallback((page, append) => {
+    const items = page?.items || [];
+    setItems((previous) => (append ? [...previous, ...items] : items));
+    setNextCursor(page?.nextCursor ?? null);
+    setHasMore(!!page?.hasMore);
+  }, [setItems]);
+
+  const loadFirst = useCallback(async () => {
+    const page = await ApiService.get(url, { params: { size } });
+    applyPage(page, false);
+    return page;
+  }, [url, size, applyPage]);
+
+  const loadMore = useCallback(async () => {
+    if (!hasMore || loadingMore) {
+      return;
+    }
+    try {
+      setLoadingMore(true);
+      const page = await ApiService.get(url, { params: { cursor: nextCursor, size } });
+      applyPage(page, true);
+    } finally {
+      setLoadingMore(false);
+    }
+  }, [url, size, hasMore, loadingMore, nextCursor, applyPage]);
+
+  return { hasMore, loadingMore, loadFirst, loadMore };
+};
+
+export default useCursorPage;
@@ -51,13 +51,14 @@ const Dashboard = () => {
       if (isAdmin) {
         // Admin sees all activities
         const [orders, prescriptions, tickets] = await Promise.all([
-          ApiService.get('/orders').catch(() => []),
-          ApiService.get('/prescriptions').catch(() => []),
-          ApiService.get('/support/tickets/all').catch(() => [])
+          ApiService.get('/orders', { params: { size: 3 } }).catch(() => null),
+          ApiService.get('/prescriptions', { params: { size: 3 } }).catch(() => null),
+          ApiService.get('/support/tickets/all', { params: { size: 3 } }).catch(() => null)
         ]);
 
+        // Staff lists are cursor pages; three rows of each are all this needs
         const activities = [
-          ...(orders || []).slice(0, 3).map(order => ({
+          ...(orders?.items || []).slice(0, 3).map(order => ({
             type: 'order',
             title: `Order #${order.id}`,
             description: `${order.status} - $${order.totalAmount?.toFixed(2)}`,
@@ -65,7 +66,7 @@ const Dashboard = () => {
             icon: 'ShoppingCart',
             color: 'blue'
           })),
-          ...(prescriptions || []).slice(0, 3).map(prescription => ({
+          ...(prescriptions?.items || []).slice(0, 3).map(prescription => ({
             type: 'prescription',
             title: `Prescription #${prescription.id}`,
             description: `${prescription.status} - ${prescription.fileName}`,
@@ -73,7 +74,7 @@ const Dashboard = () => {
             icon: 'FileText',
             color: 'yellow'
           })),
-          ...(tickets || []).slice(0, 3).map(ticket => ({
+          ...(tickets?.items || []).slice(0, 3).map(ticket => ({
             type: 'ticket',
             title: `Support Ticket #${ticket.id}`,
             description: `${ticket.status} - ${ticket.subject}`,
@@ -1,14 +1,17 @@
 // FILE: src/pages/notifications/NotificationsScreen.jsx
 import React, { useState, useEffect } from 'react';
 import { useAuth } from '../../hooks/useAuth';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import { notificationsService } from '../../services/notifications.service';
 import Loader from '../../components/common/Loader';
+import LoadMore from '../../components/common/LoadMore';
 import { formatDateTime } from '../../utils/helpers';
 
 export const NotificationsScreen = () => {
   const { user } = useAuth();
   const [notifications, setNotifications] = useState([]);
   const [loading, setLoading] = useState(true);
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage(`/notifications/${user?.id}`, setNotifications);
 
   useEffect(() => {
     loadNotifications();
@@ -17,8 +20,7 @@ export const NotificationsScreen = () => {
   const loadNotifications = async () => {
     try {
       setLoading(true);
-      const data = await notificationsService.getUserNotifications(user.id);
-      setNotifications(data);
+      await loadFirst();
     } catch (error) {
       console.error('Failed to load notifications:', error);
     } finally {
@@ -26,6 +28,10 @@ export const NotificationsScreen = () => {
     }
   };
 
+  const handleLoadMore = () => {
+    loadMore().catch((error) => console.error('Failed to load more notifications:', error));
+  };
+
   const markAsRead = async (id) => {
     try {
       await notificationsService.markAsRead(id);
@@ -73,6 +79,7 @@ export const NotificationsScreen = () => {
           </div>
         )}
       </div>
+      <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
     </div>
   );
 };
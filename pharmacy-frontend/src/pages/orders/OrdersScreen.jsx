@@ -2,11 +2,13 @@ import React, { useState, useEffect, useCallback } from 'react';
 import { useAuth } from '../../hooks/useAuth';
 import { useToast } from '../../hooks/useToast';
 import { useCart } from '../../hooks/useCart';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import ApiService from '../../services/api.service';
 import Card from '../../components/common/Card';
 import Button from '../../components/common/Button';
 import Input from '../../components/common/Input';
 import ConfirmDialog from '../../components/common/ConfirmDialog';
+import LoadMore from '../../components/common/LoadMore';
 import { ShoppingCart, Package, Truck, CheckCircle, XCircle, CreditCard, Banknote, X, MoreVertical } from 'lucide-react';
 
 const OrdersScreen = () => {
@@ -31,20 +33,19 @@ const OrdersScreen = () => {
   const [createdOrderId, setCreatedOrderId] = useState(null);
 
   const isAdmin = user?.role === 'ADMIN' || user?.role === 'PHARMACIST';
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage('/orders', setOrders);
 
   const fetchOrders = useCallback(async () => {
     try {
       setLoading(true);
-      let data;
-      
+
       if (isAdmin) {
-        data = await ApiService.get('/orders');
+        await loadFirst();
       } else {
-        data = await ApiService.get(`/orders/${user.id}`);
+        const data = await ApiService.get(`/orders/${user.id}`);
+        console.log('Orders data:', data);
+        setOrders(data || []);
       }
-      
-      console.log('Orders data:', data);
-      setOrders(data || []);
     } catch (error) {
       console.error('Error fetching orders:', error);
       showError('Failed to load orders');
@@ -52,7 +53,14 @@ const OrdersScreen = () => {
     } finally {
       setLoading(false);
     }
-  }, [isAdmin, user?.id, showError]);
+  }, [isAdmin, user?.id, showError, loadFirst]);
+
+  const handleLoadMore = () => {
+    loadMore().catch((error) => {
+      console.error('Error loading more orders:', error);
+      showError('Failed to load more orders');
+    });
+  };
 
   useEffect(() => {
     if (user?.id) {
@@ -382,6 +390,7 @@ const OrdersScreen = () => {
             ))}
           </div>
         )}
+        <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
       </Card>
 
       {/* Checkout Modal */}
@@ -1,9 +1,11 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import { useAuth } from '../../hooks/useAuth';
 import { useToast } from '../../hooks/useToast';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import ApiService from '../../services/api.service';
 import Button from '../../components/common/Button';
 import Card from '../../components/common/Card';
+import LoadMore from '../../components/common/LoadMore';
 import { FileText, Upload, X, Clock, CheckCircle, XCircle } from 'lucide-react';
 
 const PrescriptionsScreen = () => {
@@ -22,20 +24,19 @@ const PrescriptionsScreen = () => {
   });
 
   const isAdmin = user?.role === 'ADMIN' || user?.role === 'PHARMACIST';
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage('/prescriptions', setPrescriptions);
 
   const fetchPrescriptions = useCallback(async () => {
     try {
       setLoading(true);
-      let data;
-      
+
       if (isAdmin) {
-        data = await ApiService.get('/prescriptions');
+        await loadFirst();
       } else {
-        data = await ApiService.get(`/prescriptions/user/${user.id}`);
+        const data = await ApiService.get(`/prescriptions/user/${user.id}`);
+        console.log('Prescriptions data:', data);
+        setPrescriptions(data || []);
       }
-      
-      console.log('Prescriptions data:', data);
-      setPrescriptions(data || []);
     } catch (error) {
       console.error('Error fetching prescriptions:', error);
       showError('Failed to load prescriptions');
@@ -43,7 +44,14 @@ const PrescriptionsScreen = () => {
     } finally {
       setLoading(false);
     }
-  }, [isAdmin, user?.id, showError]);
+  }, [isAdmin, user?.id, showError, loadFirst]);
+
+  const handleLoadMore = () => {
+    loadMore().catch((error) => {
+      console.error('Error loading more prescriptions:', error);
+      showError('Failed to load more prescriptions');
+    });
+  };
 
   useEffect(() => {
     if (user?.id) {
@@ -261,6 +269,7 @@ const PrescriptionsScreen = () => {
             ))}
           </div>
         )}
+        <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
       </Card>
 
       {/* Upload Modal */}
@@ -2,9 +2,11 @@ import React, { useState, useEffect } from 'react';
 import { useAuth } from '../../hooks/useAuth';
 import { useCart } from '../../hooks/useCart';
 import { useToast } from '../../hooks/useToast';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import ApiService from '../../services/api.service';
 import Button from '../../components/common/Button';
 import Card from '../../components/common/Card';
+import LoadMore from '../../components/common/LoadMore';
 import Input from '../../components/common/Input';
 import ConfirmDialog from '../../components/common/ConfirmDialog';
 import { Plus, ShoppingCart, Edit, Trash2, Search, X, Package, TrendingUp, AlertCircle } from 'lucide-react';
@@ -31,6 +33,8 @@ const ProductsScreen = () => {
 
   const isAdmin = user?.role === 'ADMIN' || user?.role === 'PHARMACIST';
 
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage('/products', setProducts);
+
   useEffect(() => {
     fetchProducts();
   }, []);
@@ -38,8 +42,7 @@ const ProductsScreen = () => {
   const fetchProducts = async () => {
     try {
       setLoading(true);
-      const data = await ApiService.get('/products');
-      setProducts(data || []);
+      await loadFirst();
     } catch (error) {
       console.error('Error fetching products:', error);
       showError('Failed to load products');
@@ -48,6 +51,13 @@ const ProductsScreen = () => {
     }
   };
 
+  const handleLoadMore = () => {
+    loadMore().catch((error) => {
+      console.error('Error loading more products:', error);
+      showError('Failed to load more products');
+    });
+  };
+
   const handleAddToCart = (product) => {
     try {
       addToCart(product, 1);
@@ -290,6 +300,8 @@ const ProductsScreen = () => {
         ))}
       </div>
 
+      <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
+
       {filteredProducts.length === 0 && (
         <div className="text-center py-12">
           <Package className="mx-auto text-gray-300 mb-4" size={64} />
@@ -1,9 +1,11 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import { useAuth } from '../../hooks/useAuth';
 import { useToast } from '../../hooks/useToast';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import ApiService from '../../services/api.service';
 import Button from '../../components/common/Button';
 import Card from '../../components/common/Card';
+import LoadMore from '../../components/common/LoadMore';
 import { Plus, MessageSquare, X, Flag } from 'lucide-react';
 
 const SupportScreen = () => {
@@ -21,20 +23,19 @@ const SupportScreen = () => {
   });
 
   const isAdmin = user?.role === 'ADMIN' || user?.role === 'PHARMACIST';
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage('/support/tickets/all', setTickets);
 
   const fetchTickets = useCallback(async () => {
     try {
       setLoading(true);
-      let data;
-      
+
       if (isAdmin) {
-        data = await ApiService.get('/support/tickets/all');
+        await loadFirst();
       } else {
-        data = await ApiService.get('/support/tickets');
+        const data = await ApiService.get('/support/tickets');
+        console.log('Tickets data:', data);
+        setTickets(data || []);
       }
-      
-      console.log('Tickets data:', data);
-      setTickets(data || []);
     } catch (error) {
       console.error('Error fetching tickets:', error);
       showError('Failed to load tickets');
@@ -42,7 +43,14 @@ const SupportScreen = () => {
     } finally {
       setLoading(false);
     }
-  }, [isAdmin, showError]);
+  }, [isAdmin, showError, loadFirst]);
+
+  const handleLoadMore = () => {
+    loadMore().catch((error) => {
+      console.error('Error loading more tickets:', error);
+      showError('Failed to load more tickets');
+    });
+  };
 
   useEffect(() => {
     if (user?.id) {
@@ -246,6 +254,7 @@ const SupportScreen = () => {
             ))}
           </div>
         )}
+        <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
       </Card>
 
       {/* Create Ticket Modal */}
@@ -1,8 +1,10 @@
 import React, { useState, useEffect } from 'react';
 import { useToast } from '../../hooks/useToast';
+import { useCursorPage } from '../../hooks/useCursorPage';
 import ApiService from '../../services/api.service';
 import Button from '../../components/common/Button';
 import Card from '../../components/common/Card';
+import LoadMore from '../../components/common/LoadMore';
 import Input from '../../components/common/Input';
 import ConfirmDialog from '../../components/common/ConfirmDialog';
 import { Users, Trash2, UserPlus, X } from 'lucide-react';
@@ -26,6 +28,8 @@ const UsersScreen = () => {
     role: 'CUSTOMER'
   });
 
+  const { hasMore, loadingMore, loadFirst, loadMore } = useCursorPage('/users', setUsers);
+
   useEffect(() => {
     fetchUsers();
   }, []);
@@ -33,8 +37,7 @@ const UsersScreen = () => {
   const fetchUsers = async () => {
     try {
       setLoading(true);
-      const data = await ApiService.get('/users');
-      setUsers(data || []);
+      await loadFirst();
     } catch (error) {
       console.error('Error fetching users:', error);
       showError('Failed to load users');
@@ -43,6 +46,13 @@ const UsersScreen = () => {
     }
   };
 
+  const handleLoadMore = () => {
+    loadMore().catch((error) => {
+      console.error('Error loading more users:', error);
+      showError('Failed to load more users');
+    });
+  };
+
   const handleAddUser = async (e) => {
     e.preventDefault();
     
@@ -176,6 +186,8 @@ const UsersScreen = () => {
         ))}
       </div>
 
+      <LoadMore hasMore={hasMore} loading={loadingMore} onClick={handleLoadMore} />
+
       {users.length === 0 && (
         <div className="text-center py-12">
           <Users className="mx-auto text-gray-400 mb-4" size={48} />
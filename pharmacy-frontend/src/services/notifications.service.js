@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const notificationsService = {
-  getUserNotifications: (userId) => {
-    return ApiService.get(`/notifications/${userId}`);
+  getUserNotifications: (userId, cursor, size) => {
+    return ApiService.get(`/notifications/${userId}`, { params: { cursor, size } });
   },
 
   getUnreadNotifications: (userId) => {
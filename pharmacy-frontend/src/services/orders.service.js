@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const ordersService = {
-  getAll: () => {
-    return ApiService.get('/orders');
+  getAll: (cursor, size) => {
+    return ApiService.get('/orders', { params: { cursor, size } });
   },
 
   getUserOrders: (userId) => {
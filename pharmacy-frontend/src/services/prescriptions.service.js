@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const prescriptionsService = {
-  getAll: () => {
-    return ApiService.get('/prescriptions');
+  getAll: (cursor, size) => {
+    return ApiService.get('/prescriptions', { params: { cursor, size } });
   },
 
   getUserPrescriptions: (userId) => {
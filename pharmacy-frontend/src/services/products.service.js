@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const productsService = {
-  getAll: () => {
-    return ApiService.get('/products');
+  getAll: (cursor, size) => {
+    return ApiService.get('/products', { params: { cursor, size } });
   },
 
   getById: (id) => {
@@ -26,6 +26,10 @@ export const productsService = {
     return ApiService.get(`/search?query=${query}`);
   },
 
+  suggest: (query, limit = 10) => {
+    return ApiService.get(`/search/suggest?query=${encodeURIComponent(query)}&limit=${limit}`);
+  },
+
   getLowStock: () => {
     return ApiService.get('/inventory/stock-levels');
   },
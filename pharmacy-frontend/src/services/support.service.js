@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const supportService = {
-  getAllTickets: () => {
-    return ApiService.get('/support/tickets/all');
+  getAllTickets: (cursor, size) => {
+    return ApiService.get('/support/tickets/all', { params: { cursor, size } });
   },
 
   getUserTickets: () => {
@@ -2,8 +2,8 @@
 import ApiService from './api.service';
 
 export const usersService = {
-  getAll: () => {
-    return ApiService.get('/users');
+  getAll: (cursor, size) => {
+    return ApiService.get('/users', { params: { cursor, size } });
   },
 
   updateRole: (userId, role) => {